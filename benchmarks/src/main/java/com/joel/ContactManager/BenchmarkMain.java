@@ -0,0 +1,35 @@
+package com.joel.ContactManager;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks, with the GC profiler to report the allocation
+ * rate of each.
+ *
+ * Takes the usual JMH options, for example a pattern to pick benchmarks and
+ * -p contacts=100000 to change the population:
+ *
+ *     java -jar benchmarks/target/benchmarks.jar Query -p guests=10
+ */
+public class BenchmarkMain {
+	public static void main(String[] args)
+			throws CommandLineOptionException, RunnerException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		Options options = new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.build();
+		Runner runner = new Runner(options);
+		if (commandLine.shouldList()) {
+			runner.list();
+		} else {
+			runner.run();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.joel.ContactManager;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of one manager shared by 1, 2, 4 ... 64 threads.
+ *
+ * Each thread runs a mix of queries (meetings of a contact, meetings of a
+ * day, contacts by name) with one in WRITE_EVERY operations adding a future
+ * meeting. Run with the number of contacts, meetings and seconds per thread
+ * count as arguments (default 10000, 100000 and 2).
+ */
+public class ContactManagerContentionBenchmark {
+	private static final int WRITE_EVERY = 20;
+
+	private static long run(final ContactManagerImpl mgr, final List<Contact> all,
+			int threads, final long nanos) throws InterruptedException {
+		final AtomicLong ops = new AtomicLong();
+		final CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<Thread>(threads);
+		for (int t = 0; t < threads; t++) {
+			final Random random = new Random(t);
+			Thread w = new Thread() {
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					long n = 0;
+					long end = System.nanoTime() + nanos;
+					while (System.nanoTime() < end) {
+						Contact c = all.get(random.nextInt(all.size()));
+						Calendar day = Calendar.getInstance();
+						day.add(Calendar.DATE, random.nextInt(3650) - 3650 / 2);
+						switch ((int) (n % WRITE_EVERY)) {
+						case 0:
+							day.add(Calendar.YEAR, 20);
+							Set<Contact> g = new HashSet<Contact>();
+							g.add(c);
+							mgr.addFutureMeeting(g, day);
+							break;
+						case 1:
+						case 2:
+							mgr.getFutureMeetingList(day);
+							break;
+						case 3:
+							mgr.getContacts("ct " + random.nextInt(100));
+							break;
+						default:
+							mgr.getFutureMeetingList(c);
+						}
+						n++;
+					}
+					ops.addAndGet(n);
+				}
+			};
+			w.start();
+			workers.add(w);
+		}
+		start.countDown();
+		for (Thread w: workers) {
+			w.join();
+		}
+		return ops.get();
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int contacts = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int meetings = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		ContactManagerImpl mgr = Population.generate(contacts, meetings, 3);
+		List<Contact> all = new ArrayList<Contact>(mgr.contacts());
+		long nanos = seconds * 1000000000L;
+		// warm up the JIT
+		run(mgr, all, 4, nanos);
+		for (int threads = 1; threads <= 64; threads *= 2) {
+			long ops = run(mgr, all, threads, nanos);
+			System.out.printf("%2d threads %,14.0f ops/s%n", threads,
+					ops / (double) seconds);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.joel.ContactManager;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the queries of the ContactManager API on a manager that doesn't
+ * change: throughput, and the distribution of the time per call.
+ *
+ * The manager is built once per fork by Population, with the numbers of
+ * contacts, meetings and guests per meeting given as parameters. Each
+ * thread goes round the contacts, meetings and days in its own order.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactManagerQueryBenchmark {
+	@Param("10000")
+	public int contacts;
+	@Param("100000")
+	public int meetings;
+	@Param("3")
+	public int guests;
+
+	private ContactManagerImpl mgr;
+	private Contact[] allContacts;
+	private int[] pastIds;
+	private int[] futureIds;
+	private Calendar[] days;
+	private String[] names;
+
+	@Setup
+	public void setUp() {
+		mgr = Population.generate(contacts, meetings, guests);
+		allContacts = mgr.contacts().toArray(new Contact[0]);
+		pastIds = ids(mgr.pastMeetings());
+		futureIds = ids(mgr.futureMeetings());
+		Calendar today = ContactManagerImpl.todayProvider.today();
+		days = new Calendar[2 * Population.SPREAD_DAYS];
+		for (int i = 0; i < days.length; i++) {
+			days[i] = (Calendar) today.clone();
+			days[i].add(Calendar.DATE, i - Population.SPREAD_DAYS);
+		}
+		names = new String[1000];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "Contact " + i * (contacts / names.length);
+		}
+	}
+
+	private static int[] ids(Iterable<? extends Meeting> meetings) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Meeting m: meetings) {
+			ids.add(m.getId());
+		}
+		int[] result = new int[ids.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = ids.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Where a thread is in the contacts, meetings and days.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int next;
+
+		int next(int length) {
+			next = next + 7919 & Integer.MAX_VALUE;
+			return next % length;
+		}
+	}
+
+	@Benchmark
+	public Meeting getMeeting(Cursor c) {
+		return mgr.getMeeting(pastIds[c.next(pastIds.length)]);
+	}
+
+	@Benchmark
+	public PastMeeting getPastMeeting(Cursor c) {
+		return mgr.getPastMeeting(pastIds[c.next(pastIds.length)]);
+	}
+
+	@Benchmark
+	public FutureMeeting getFutureMeeting(Cursor c) {
+		return mgr.getFutureMeeting(futureIds[c.next(futureIds.length)]);
+	}
+
+	@Benchmark
+	public List<Meeting> getFutureMeetingListOfContact(Cursor c) {
+		return mgr.getFutureMeetingList(allContacts[c.next(allContacts.length)]);
+	}
+
+	@Benchmark
+	public List<Meeting> getFutureMeetingListOfDay(Cursor c) {
+		return mgr.getFutureMeetingList(days[c.next(days.length)]);
+	}
+
+	@Benchmark
+	public List<PastMeeting> getPastMeetingList(Cursor c) {
+		return mgr.getPastMeetingList(allContacts[c.next(allContacts.length)]);
+	}
+
+	@Benchmark
+	public Set<Contact> getContactsByIds(Cursor c) {
+		return mgr.getContacts(allContacts[c.next(allContacts.length)].getId(),
+				allContacts[c.next(allContacts.length)].getId());
+	}
+
+	@Benchmark
+	public Set<Contact> getContactsByName(Cursor c) {
+		return mgr.getContacts(names[c.next(names.length)]);
+	}
+}
@@ -0,0 +1,122 @@
+package com.joel.ContactManager;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the changes of the ContactManager API: throughput, and the
+ * distribution of the time per call.
+ *
+ * The manager is built again by Population before each iteration, so that
+ * the changes made in one don't slow down the next. It is not saved: see
+ * PersistenceBenchmark for flush().
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactManagerUpdateBenchmark {
+	@Param("10000")
+	public int contacts;
+	@Param("100000")
+	public int meetings;
+	@Param("3")
+	public int guests;
+
+	private ContactManagerImpl mgr;
+	private Contact[] allContacts;
+	private int[] pastIds;
+	private List<Set<Contact>> guestLists;
+	private Calendar[] futureDays;
+	private Calendar[] pastDays;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		mgr = Population.generate(contacts, meetings, guests);
+		allContacts = mgr.contacts().toArray(new Contact[0]);
+		List<Integer> ids = new ArrayList<Integer>();
+		for (PastMeeting m: mgr.pastMeetings()) {
+			ids.add(m.getId());
+		}
+		pastIds = new int[ids.size()];
+		for (int i = 0; i < pastIds.length; i++) {
+			pastIds[i] = ids.get(i);
+		}
+		guestLists = new ArrayList<Set<Contact>>(1000);
+		for (int i = 0; i < 1000; i++) {
+			Set<Contact> g = new HashSet<Contact>();
+			for (int j = 0; j < guests; j++) {
+				g.add(allContacts[(i * 7919 + j * 104729) % allContacts.length]);
+			}
+			guestLists.add(g);
+		}
+		Calendar today = ContactManagerImpl.todayProvider.today();
+		futureDays = new Calendar[Population.SPREAD_DAYS];
+		pastDays = new Calendar[Population.SPREAD_DAYS];
+		for (int i = 0; i < Population.SPREAD_DAYS; i++) {
+			futureDays[i] = (Calendar) today.clone();
+			futureDays[i].add(Calendar.DATE, i + 1);
+			pastDays[i] = (Calendar) today.clone();
+			pastDays[i].add(Calendar.DATE, -i - 1);
+		}
+	}
+
+	/**
+	 * Where a thread is in the contacts, meetings and days.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+		private int next;
+
+		int next(int length) {
+			next = next + 7919 & Integer.MAX_VALUE;
+			return next % length;
+		}
+	}
+
+	@Benchmark
+	public int addFutureMeeting(Cursor c) {
+		return mgr.addFutureMeeting(guestLists.get(c.next(guestLists.size())),
+				futureDays[c.next(futureDays.length)]);
+	}
+
+	@Benchmark
+	public void addNewPastMeeting(Cursor c) {
+		mgr.addNewPastMeeting(guestLists.get(c.next(guestLists.size())),
+				pastDays[c.next(pastDays.length)], "Went well");
+	}
+
+	@Benchmark
+	public void addMeetingNotes(Cursor c) {
+		mgr.addMeetingNotes(pastIds[c.next(pastIds.length)], "More notes");
+	}
+
+	@Benchmark
+	public void addNewContact() {
+		mgr.addNewContact("New contact", "Notes");
+	}
+
+	@Benchmark
+	public void addContactNotes(Cursor c) {
+		allContacts[c.next(allContacts.length)].addNotes("More notes");
+	}
+}
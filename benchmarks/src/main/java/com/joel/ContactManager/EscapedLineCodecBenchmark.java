@@ -0,0 +1,120 @@
+package com.joel.ContactManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Compares EscapedLineCodec with the string-concatenating escaping that
+ * ContactManagerImpl used before it.
+ *
+ * Run with the length of the notes to escape as argument (default 10000).
+ */
+public class EscapedLineCodecBenchmark {
+	private static final int ROUNDS = 200;
+
+	/**
+	 * The escaping code ContactManagerImpl used to have.
+	 */
+	private static void legacyWriteEscaped(Writer w, String s) throws IOException {
+		s = s.replace("\\", "\\\\");
+		s = s.replace("\n", "\\n") + "\n";
+		w.write(s, 0, s.length());
+	}
+
+	/**
+	 * The unescaping code ContactManagerImpl used to have.
+	 */
+	private static String legacyReadUnescaped(BufferedReader r) throws IOException {
+		String s = r.readLine();
+		if (s.length() < 2) {
+			return s;
+		}
+		String res = "";
+		int i = 0;
+		for (; i < s.length()-1; i++) {
+			if (s.charAt(i) == '\\') {
+				i++;
+				if (s.charAt(i) == 'n') {
+					res += "\n";
+				} else {
+					res += s.charAt(i);
+				}
+			} else {
+				res += s.charAt(i);
+			}
+		}
+		if (i == s.length()) {
+			return res;
+		} else {
+			return res + s.charAt(s.length()-1);
+		}
+	}
+
+	/**
+	 * A buffered writer that discards its output, like the one flush() uses
+	 * minus the disk.
+	 */
+	private static Writer sink() {
+		return new BufferedWriter(new Writer() {
+			public void write(char[] cbuf, int off, int len) {
+			}
+			public void flush() {
+			}
+			public void close() {
+			}
+		});
+	}
+
+	private static String notes(int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			if (i % 80 == 79) {
+				sb.append('\n');
+			} else if (i % 500 == 499) {
+				sb.append('\\');
+			} else {
+				sb.append((char)('a' + i % 26));
+			}
+		}
+		return sb.toString();
+	}
+
+	public static void main(String[] args) throws IOException {
+		int length = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		String notes = notes(length);
+		StringWriter w = new StringWriter();
+		EscapedLineCodec.writeEscaped(w, notes);
+		String escaped = w.toString();
+
+		for (int pass = 0; pass < 5; pass++) {
+			// the first passes only warm up the JIT
+			long t0 = System.nanoTime();
+			for (int i = 0; i < ROUNDS; i++) {
+				legacyWriteEscaped(sink(), notes);
+			}
+			long t1 = System.nanoTime();
+			for (int i = 0; i < ROUNDS; i++) {
+				EscapedLineCodec.writeEscaped(sink(), notes);
+			}
+			long t2 = System.nanoTime();
+			for (int i = 0; i < ROUNDS; i++) {
+				legacyReadUnescaped(new BufferedReader(new StringReader(escaped)));
+			}
+			long t3 = System.nanoTime();
+			for (int i = 0; i < ROUNDS; i++) {
+				EscapedLineCodec.readUnescaped(new BufferedReader(new StringReader(escaped)));
+			}
+			long t4 = System.nanoTime();
+			if (pass == 4) {
+				System.out.printf("escape   legacy %10.1f us  codec %10.1f us%n",
+						(t1 - t0) / 1e3 / ROUNDS, (t2 - t1) / 1e3 / ROUNDS);
+				System.out.printf("unescape legacy %10.1f us  codec %10.1f us%n",
+						(t3 - t2) / 1e3 / ROUNDS, (t4 - t3) / 1e3 / ROUNDS);
+			}
+		}
+	}
+}
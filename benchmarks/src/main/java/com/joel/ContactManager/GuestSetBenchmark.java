@@ -0,0 +1,110 @@
+package com.joel.ContactManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the guests of meetings kept in HashSets, as they used to be, with
+ * GuestSets: the time of contains() for guests and for other contacts, and
+ * the heap taken by the sets.
+ *
+ * Guests are drawn from a population of contacts with consecutive ids, so
+ * large meetings get bitsets. Run with the number of contacts, of sets per
+ * size and of lookups per size as arguments (default 100000, 10000 and
+ * 20000000).
+ */
+public class GuestSetBenchmark {
+	private static final int[] SIZES = {2, 8, 64, 512};
+	/**
+	 * The sets being measured, kept here so that the JIT can't drop them.
+	 */
+	private static final Object[] retained = new Object[2];
+
+	private static long lookups(List<Set<Contact>> sets, Contact[] probes, int n) {
+		long found = 0;
+		for (int i = 0; i < n; i++) {
+			int j = i % probes.length;
+			if (sets.get(j % sets.size()).contains(probes[j])) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	private static long usedHeap() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	public static void main(String[] args) {
+		int contacts = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int count = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		int n = args.length > 2 ? Integer.parseInt(args[2]) : 20000000;
+		Contact[] all = new Contact[contacts];
+		for (int i = 0; i < contacts; i++) {
+			all[i] = new ContactImpl("Contact " + i, "");
+		}
+		for (int size: SIZES) {
+			run(all, size, count, n);
+		}
+	}
+
+	private static void run(Contact[] all, int size, int count, int n) {
+		int contacts = all.length;
+		Random random = new Random(size);
+		// guests of a meeting are drawn from a window of the population,
+		// like the contacts of one team
+		int window = Math.min(contacts, size * 4);
+		List<Set<Contact>> hashSets = new ArrayList<Set<Contact>>(count);
+		for (int s = 0; s < count; s++) {
+			int from = random.nextInt(contacts - window + 1);
+			Set<Contact> guests = new HashSet<Contact>();
+			while (guests.size() < size) {
+				guests.add(all[from + random.nextInt(window)]);
+			}
+			hashSets.add(guests);
+		}
+		List<Set<Contact>> guestSets = new ArrayList<Set<Contact>>(count);
+		for (Set<Contact> guests: hashSets) {
+			guestSets.add(GuestSet.of(guests));
+		}
+		// half the probes are guests of the set they are tried on
+		Contact[] probes = new Contact[4096];
+		for (int i = 0; i < probes.length; i++) {
+			probes[i] = i % 2 == 0
+					? hashSets.get(i % count).iterator().next()
+					: all[random.nextInt(contacts)];
+		}
+		for (int round = 0; round < 3; round++) {
+			long t = System.nanoTime();
+			long foundHash = lookups(hashSets, probes, n);
+			long hashNanos = System.nanoTime() - t;
+			t = System.nanoTime();
+			long foundGuest = lookups(guestSets, probes, n);
+			long guestNanos = System.nanoTime() - t;
+			if (foundHash != foundGuest) {
+				throw new AssertionError("Different results");
+			}
+			System.out.printf("%3d guests: HashSet %6.1f ns, GuestSet %6.1f ns%n",
+					size, hashNanos / (double) n, guestNanos / (double) n);
+		}
+		// the heap taken by each kind of set is what dropping them frees
+		retained[0] = hashSets;
+		retained[1] = guestSets;
+		hashSets = null;
+		guestSets = null;
+		long both = usedHeap();
+		retained[0] = null;
+		long guestsOnly = usedHeap();
+		retained[1] = null;
+		long none = usedHeap();
+		System.out.printf("%3d guests: HashSet %,6d bytes, GuestSet %,6d bytes%n",
+				size, (both - guestsOnly) / count, (guestsOnly - none) / count);
+	}
+}
@@ -0,0 +1,57 @@
+package com.joel.ContactManager;
+
+/**
+ * Measures the heap taken by a large population, and the time to list the
+ * future meetings of every contact in it a number of times.
+ *
+ * This is not a JMH benchmark: the heap is measured once, as the memory in
+ * use after garbage collection, before and after building the population.
+ * Run it alone, with a fixed heap so the collector doesn't resize it midway:
+ *
+ *     java -Xms2g -Xmx2g -cp benchmarks/target/benchmarks.jar \
+ *         com.joel.ContactManager.MemCheck [contacts meetings guests rounds]
+ *
+ * The defaults are 100000 contacts, 1000000 meetings of 3 guests and 20
+ * rounds of queries.
+ */
+public class MemCheck {
+	public static void main(String[] args) throws InterruptedException {
+		int contacts = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int meetings = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+		int guests = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+
+		long before = usedAfterGc();
+		ContactManagerImpl mgr = Population.generate(contacts, meetings, guests);
+		long after = usedAfterGc();
+
+		long start = System.nanoTime();
+		long found = 0;
+		for (int i = 0; i < rounds; i++) {
+			for (Contact c: mgr.contacts()) {
+				found += mgr.getFutureMeetingList(c).size();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("heap: " + (after - before) / 1000000 + " MB");
+		System.out.println("queries: " + elapsed / 1000000 + " ms for "
+				+ rounds + " rounds, " + found + " meetings found");
+		// keep the population reachable until the end
+		System.out.println("contacts: " + mgr.contacts().size());
+	}
+
+	/**
+	 * Returns the memory in use once the garbage has been collected.
+	 *
+	 * @return the used heap, in bytes.
+	 */
+	private static long usedAfterGc() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		// let finalization and reference processing settle
+		Thread.sleep(200);
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
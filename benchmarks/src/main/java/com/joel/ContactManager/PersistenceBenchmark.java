@@ -0,0 +1,86 @@
+package com.joel.ContactManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures saving and reading a manager, in either snapshot format.
+ *
+ * flushChange() is the usual flush(): one change appended to the journal
+ * and synced. writeSnapshot() writes the whole manager, as flush() does when
+ * the journal gets too long, and read() is ContactManagerImpl.read() of that
+ * snapshot. Each read() leaves a journal open, so it is timed once per
+ * iteration rather than in a loop.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+	@Param("10000")
+	public int contacts;
+	@Param("100000")
+	public int meetings;
+	@Param("3")
+	public int guests;
+	@Param({"text", "binary"})
+	public String format;
+
+	private File file;
+	private ContactManagerImpl mgr;
+	private Contact[] allContacts;
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		file = File.createTempFile("contacts", "." + format);
+		ContactManagerImpl.snapshotCodec = format.equals("text")
+				? new TextSnapshotCodec(file.getPath())
+				: new BinarySnapshotCodec(file.getPath());
+		mgr = Population.generate(contacts, meetings, guests);
+		allContacts = mgr.contacts().toArray(new Contact[0]);
+		mgr.flush();
+	}
+
+	@TearDown
+	public void tearDown() {
+		file.delete();
+		new File(file.getPath() + ".journal").delete();
+	}
+
+	@Benchmark
+	@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+	public void flushChange() {
+		next = (next + 1) % allContacts.length;
+		allContacts[next].addNotes("More notes");
+		mgr.flush();
+	}
+
+	@Benchmark
+	@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+	public void writeSnapshot() throws IOException {
+		ContactManagerImpl.snapshotCodec.write(mgr);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Measurement(iterations = 10)
+	public ContactManager read() {
+		return ContactManagerImpl.read();
+	}
+}
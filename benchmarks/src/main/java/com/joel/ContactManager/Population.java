@@ -0,0 +1,77 @@
+package com.joel.ContactManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds managers with a synthetic population for the benchmarks.
+ *
+ * Contacts are named "Contact 0", "Contact 1" ..., and each meeting has a
+ * given number of guests drawn at random, on a day drawn from the five years
+ * before and after today: about half of the meetings are in the past, with
+ * notes. The same seed gives the same population.
+ */
+public class Population {
+	/**
+	 * Days either side of today the meetings are spread over.
+	 */
+	public static final int SPREAD_DAYS = 3650 / 2;
+
+	/**
+	 * Build a manager with a random population, through the same bulk load
+	 * methods read() uses.
+	 *
+	 * @param contacts the number of contacts.
+	 * @param meetings the number of meetings.
+	 * @param guests the number of guests per meeting, at most contacts.
+	 * @param seed the seed of the random numbers.
+	 * @return the manager.
+	 */
+	public static ContactManagerImpl generate(int contacts, int meetings, int guests,
+			long seed) {
+		if (guests > contacts) {
+			throw new IllegalArgumentException(guests + " guests among " + contacts + " contacts");
+		}
+		Random random = new Random(seed);
+		ContactManagerImpl mgr = new ContactManagerImpl();
+		List<ContactImpl> all = new ArrayList<ContactImpl>(contacts);
+		for (int i = 0; i < contacts; i++) {
+			all.add(new ContactImpl("Contact " + i, "Notes about contact " + i));
+		}
+		mgr.loadContacts(all);
+		List<PastMeeting> past = new ArrayList<PastMeeting>();
+		List<FutureMeeting> future = new ArrayList<FutureMeeting>();
+		long today = ContactManagerImpl.epochDay(ContactManagerImpl.todayProvider.today());
+		for (int i = 0; i < meetings; i++) {
+			Set<Contact> g = new HashSet<Contact>();
+			while (g.size() < guests) {
+				g.add(all.get(random.nextInt(contacts)));
+			}
+			long day = today + random.nextInt(2 * SPREAD_DAYS) - SPREAD_DAYS;
+			if (day <= today) {
+				past.add(new PastMeetingImpl(g,
+						ContactManagerImpl.dateOfEpochDay(day), "Meeting " + i));
+			} else {
+				future.add(new FutureMeetingImpl(g,
+						ContactManagerImpl.dateOfEpochDay(day)));
+			}
+		}
+		mgr.loadMeetings(past, future);
+		return mgr;
+	}
+
+	/**
+	 * Build a manager with a random population, always the same one.
+	 *
+	 * @param contacts the number of contacts.
+	 * @param meetings the number of meetings.
+	 * @param guests the number of guests per meeting.
+	 * @return the manager.
+	 */
+	public static ContactManagerImpl generate(int contacts, int meetings, int guests) {
+		return generate(contacts, meetings, guests, 42);
+	}
+}
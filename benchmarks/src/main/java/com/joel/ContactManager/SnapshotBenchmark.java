@@ -0,0 +1,63 @@
+package com.joel.ContactManager;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures snapshot() after a change, which is what flushAsync() does when
+ * it compacts the journal and what a report does after any write: the
+ * manager has no snapshot to return again, and takes a new one.
+ *
+ * The change is a note added to a contact, which costs little next to the
+ * snapshot: see ContactManagerUpdateBenchmark.addContactNotes for it alone.
+ *
+ * The snapshot copies every contact and the day index with the monitor of
+ * the manager held, so it grows with the number of contacts and days; the
+ * largest population, 100000 contacts with 1000000 meetings, is the one
+ * MemCheck measures, and needs a heap of about 3 GB. The population is
+ * built once per run: rebuilding a large one for each iteration leaves
+ * the collector so much garbage that its pauses swamp the snapshots.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+	@Param({"1000", "10000", "100000"})
+	public int contacts;
+	@Param({"100000", "1000000"})
+	public int meetings;
+	@Param("3")
+	public int guests;
+
+	private ContactManagerImpl mgr;
+	private Contact[] allContacts;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		mgr = Population.generate(contacts, meetings, guests);
+		allContacts = mgr.contacts().toArray(new Contact[0]);
+	}
+
+	@Benchmark
+	public ContactManagerImpl snapshotAfterChange() {
+		next = next + 7919 & Integer.MAX_VALUE;
+		allContacts[next % allContacts.length].addNotes("More notes");
+		return mgr.snapshot();
+	}
+}
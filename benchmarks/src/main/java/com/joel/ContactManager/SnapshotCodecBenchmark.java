@@ -0,0 +1,46 @@
+package com.joel.ContactManager;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares the text and binary snapshot formats: file size, write time and
+ * read time.
+ *
+ * Run with the number of contacts, meetings and guests per meeting as
+ * arguments (default 1000000, 10000000 and 3). Half of the meetings are in
+ * the past. The default population needs a large heap (around -Xmx16g).
+ */
+public class SnapshotCodecBenchmark {
+
+	private static void measure(ContactManagerImpl mgr, SnapshotCodec codec)
+			throws IOException {
+		long t0 = System.nanoTime();
+		codec.write(mgr);
+		long t1 = System.nanoTime();
+		codec.read(new ContactManagerImpl());
+		long t2 = System.nanoTime();
+		System.out.printf("%-20s %,14d bytes  write %8.1f ms  read %8.1f ms%n",
+				codec.getClass().getSimpleName(), new File(codec.getFileName()).length(),
+				(t1 - t0) / 1e6, (t2 - t1) / 1e6);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int contacts = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int meetings = args.length > 1 ? Integer.parseInt(args[1]) : 10000000;
+		int guests = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+		ContactManagerImpl mgr = Population.generate(contacts, meetings, guests);
+		File text = File.createTempFile("contacts", ".txt");
+		File binary = File.createTempFile("contacts", ".bin");
+		try {
+			for (int pass = 0; pass < 3; pass++) {
+				// the first passes only warm up the JIT
+				measure(mgr, new TextSnapshotCodec(text.getPath()));
+				measure(mgr, new BinarySnapshotCodec(binary.getPath()));
+			}
+		} finally {
+			text.delete();
+			binary.delete();
+		}
+	}
+}
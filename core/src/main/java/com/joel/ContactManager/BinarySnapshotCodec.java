@@ -0,0 +1,357 @@
+package com.joel.ContactManager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Saves contacts and meetings in a compact binary format.
+ *
+ * The file starts with a magic number and the number of the last change
+ * included, followed by the contacts (id, name, notes), the past meetings
+ * (id, date, guest ids, notes) and the future meetings (id, date, guest
+ * ids), each list preceded by its length.
+ *
+ * Ids and lengths are written as unsigned varints, dates as zig-zag encoded
+ * varint milliseconds since the epoch followed by the id of their time
+ * zone, and strings as their UTF-8 bytes preceded by their length.
+ */
+public class BinarySnapshotCodec implements SnapshotCodec {
+	/**
+	 * First bytes of the save file, identifying its format: "CMB3".
+	 */
+	private static final int MAGIC = 0x434d4233;
+	private String fileName;
+
+	/**
+	 * Create a codec that saves to a file.
+	 *
+	 * @param fileName the file to save to.
+	 */
+	public BinarySnapshotCodec(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Save all the contacts and meetings of a manager, with their ids.
+	 *
+	 * The data is written to a temporary file that then replaces the save
+	 * file, so the previous snapshot stays whole if writing fails.
+	 *
+	 * @param mgr the manager to save.
+	 */
+	public void write(ContactManagerImpl mgr) throws IOException {
+		String tmpName = fileName + ".tmp";
+		DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpName), 1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeLong(mgr.getJournalSequence());
+			writeVarint(out, mgr.contacts().size());
+			for (Contact c: mgr.contacts()) {
+				writeVarint(out, c.getId());
+				writeString(out, c.getName());
+				writeString(out, c.getNotes());
+			}
+			writeVarint(out, mgr.pastMeetings().size());
+			for (PastMeeting m: mgr.pastMeetings()) {
+				writeMeeting(out, m);
+				writeString(out, m.getNotes());
+			}
+			writeVarint(out, mgr.futureMeetings().size());
+			for (FutureMeeting m: mgr.futureMeetings()) {
+				writeMeeting(out, m);
+			}
+		} finally {
+			out.close();
+		}
+		Files.move(Paths.get(tmpName), Paths.get(fileName),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Read saved contacts and meetings into an empty manager, keeping their
+	 * ids.
+	 *
+	 * The file is memory-mapped and decoded in place, and the records are
+	 * handed to the manager in bulk, without the validation of its public
+	 * methods.
+	 *
+	 * @param mgr the manager to read into, empty.
+	 * @throws java.io.FileNotFoundException
+	 *             if there is no saved data
+	 */
+	public void read(ContactManagerImpl mgr) throws IOException {
+		try {
+			read(mgr, map());
+		} catch (BufferUnderflowException e) {
+			throw new IOException(fileName + ": truncated", e);
+		}
+	}
+
+	/**
+	 * Decode saved contacts and meetings into an empty manager.
+	 *
+	 * @param mgr the manager to read into, empty.
+	 * @param in the contents of the save file.
+	 */
+	private void read(ContactManagerImpl mgr, ByteBuffer in) throws IOException {
+		if (in.getInt() != MAGIC) {
+			throw new IOException(fileName + ": unknown format");
+		}
+		mgr.setSnapshotSequence(in.getLong());
+		byte[] buf = new byte[256];
+		int count = readCount(in);
+		List<ContactImpl> contacts = new ArrayList<ContactImpl>(count);
+		for (int i = 0; i < count; i++) {
+			int id = readId(in);
+			String name = readString(in, buf);
+			String notes = readString(in, buf);
+			contacts.add(new ContactImpl(name, notes, id));
+		}
+		mgr.loadContacts(contacts);
+		count = readCount(in);
+		List<PastMeeting> past = new ArrayList<PastMeeting>(count);
+		for (int i = 0; i < count; i++) {
+			int id = readId(in);
+			long time = readZigZag(in);
+			TimeZone zone = readZone(in, buf);
+			Set<Contact> guests = readGuests(mgr, in);
+			String notes = readString(in, buf);
+			past.add(new PastMeetingImpl(guests, time, zone, notes, id));
+		}
+		count = readCount(in);
+		List<FutureMeeting> future = new ArrayList<FutureMeeting>(count);
+		for (int i = 0; i < count; i++) {
+			int id = readId(in);
+			long time = readZigZag(in);
+			TimeZone zone = readZone(in, buf);
+			Set<Contact> guests = readGuests(mgr, in);
+			future.add(new FutureMeetingImpl(guests, time, zone, id));
+		}
+		mgr.loadMeetings(past, future);
+	}
+
+	/**
+	 * Map the whole save file into memory.
+	 *
+	 * @return a buffer with the contents of the file.
+	 * @throws IOException
+	 *             if the file can't be read or is too large to be mapped
+	 */
+	private ByteBuffer map() throws IOException {
+		FileChannel channel = new RandomAccessFile(fileName, "r").getChannel();
+		try {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(fileName + ": too large to map");
+			}
+			// the mapping stays valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Write the id, date and guest ids of a meeting.
+	 *
+	 * @param out the stream to write to
+	 * @param m the meeting to write
+	 */
+	private static void writeMeeting(DataOutputStream out, Meeting m) throws IOException {
+		writeVarint(out, m.getId());
+		writeDate(out, m);
+		writeVarint(out, m.getContacts().size());
+		for (Contact c: m.getContacts()) {
+			writeVarint(out, c.getId());
+		}
+	}
+
+	/**
+	 * Write the date of a meeting: its time, in milliseconds since the epoch,
+	 * and the id of its time zone.
+	 *
+	 * @param out the stream to write to
+	 * @param m the meeting whose date to write
+	 */
+	static void writeDate(DataOutputStream out, Meeting m) throws IOException {
+		writeZigZag(out, ContactManagerImpl.timeOf(m));
+		writeString(out, MeetingImpl.zoneOf(m).getID());
+	}
+
+	/**
+	 * Read the time zone of a date written by writeDate, after its time.
+	 *
+	 * @param in the stream to read from
+	 * @param buf a buffer to read the id of the time zone into
+	 * @return the time zone.
+	 */
+	static TimeZone readZone(ByteBuffer in, byte[] buf) throws IOException {
+		return MeetingImpl.timeZone(readString(in, buf));
+	}
+
+	/**
+	 * Read the guests of a meeting written by writeMeeting.
+	 *
+	 * @param mgr the manager the guests are contacts of
+	 * @param in the stream to read from
+	 * @return the guests of the meeting.
+	 */
+	private Set<Contact> readGuests(ContactManagerImpl mgr, ByteBuffer in)
+			throws IOException {
+		int count = readCount(in);
+		Set<Contact> guests = new HashSet<Contact>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			int id = readId(in);
+			Contact c = mgr.getContact(id);
+			if (c == null) {
+				throw new IOException(fileName + ": unknown guest " + id);
+			}
+			guests.add(c);
+		}
+		return guests;
+	}
+
+	/**
+	 * Write an int as an unsigned varint: 7 bits per byte, least significant
+	 * first, with the high bit set on all bytes but the last.
+	 */
+	static void writeVarint(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7f) != 0) {
+			out.writeByte((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Read an int written by writeVarint.
+	 */
+	static int readVarint(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.get() & 0xff;
+			value |= (b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/**
+	 * Read an id of a contact or meeting, written by writeVarint.
+	 *
+	 * @throws IOException
+	 *             if the id can't have been allocated
+	 */
+	static int readId(ByteBuffer in) throws IOException {
+		int id = readVarint(in);
+		if (!IdTable.isValidId(id)) {
+			throw new IOException("Malformed id " + id);
+		}
+		return id;
+	}
+
+	/**
+	 * Read the number of items that follow, written by writeVarint.
+	 *
+	 * Each item takes at least a byte, so a count larger than the bytes left
+	 * is the end of the data, like a read past it.
+	 *
+	 * @throws IOException
+	 *             if the count is negative
+	 * @throws BufferUnderflowException
+	 *             if there are fewer bytes left than items
+	 */
+	static int readCount(ByteBuffer in) throws IOException {
+		int count = readVarint(in);
+		if (count < 0) {
+			throw new IOException("Malformed count " + count);
+		}
+		if (count > in.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		return count;
+	}
+
+	/**
+	 * Write a long that may be negative as a zig-zag encoded varint, so that
+	 * small negative numbers are short too.
+	 */
+	static void writeZigZag(DataOutputStream out, long value) throws IOException {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7fL) != 0) {
+			out.writeByte((int)((zigzag & 0x7f) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.writeByte((int)zigzag);
+	}
+
+	/**
+	 * Read a long written by writeZigZag.
+	 */
+	static long readZigZag(ByteBuffer in) throws IOException {
+		long zigzag = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.get() & 0xff;
+			zigzag |= (long)(b & 0x7f) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/**
+	 * Write a string as its UTF-8 bytes preceded by their number.
+	 */
+	static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarint(out, bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Read a string written by writeString.
+	 *
+	 * @param in the stream to read from
+	 * @param buf a buffer to read the bytes into, if they fit
+	 * @return the string.
+	 * @throws IOException
+	 *             if the length is negative
+	 * @throws BufferUnderflowException
+	 *             if the string goes past the end of the data
+	 */
+	static String readString(ByteBuffer in, byte[] buf) throws IOException {
+		int length = readVarint(in);
+		if (length < 0) {
+			throw new IOException("Malformed string length " + length);
+		}
+		// checked before the bytes are allocated
+		if (length > in.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = length <= buf.length ? buf : new byte[length];
+		in.get(bytes, 0, length);
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,103 @@
+package com.joel.ContactManager;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+/**
+ * A CurrentDateProvider that asks another provider for the date only once
+ * per period of a given granularity, and answers from a cache in between.
+ *
+ * With a granularity of ChronoUnit.DAYS, the date is read on the first call
+ * of each day in the default time zone, and stays the same until midnight,
+ * so meetings later that day are taken as future ones until the next day.
+ * Finer granularities read it again in each second, minute or hour, or on
+ * every millisecond.
+ *
+ * The system clock tells when the period is over. Calls within a period
+ * allocate nothing and read one volatile field, so the provider can be
+ * shared between threads. Like any provider, it can be set as
+ * ContactManagerImpl.todayProvider, wrapping a fake one in tests.
+ */
+class CachedCurrentDateProvider implements CurrentDateProvider {
+	private final CurrentDateProvider source;
+	private final ChronoUnit granularity;
+	/**
+	 * The last date read from the source.
+	 */
+	private volatile Reading reading = new Reading(0, Long.MIN_VALUE);
+
+	/**
+	 * A date read from the source, and the system time until which it holds.
+	 */
+	private static final class Reading {
+		final long now;
+		final long until;
+
+		Reading(long now, long until) {
+			this.now = now;
+			this.until = until;
+		}
+	}
+
+	/**
+	 * Create a provider caching the dates of another.
+	 *
+	 * @param source
+	 *            the provider to read the date from
+	 * @param granularity
+	 *            how often to read it: MILLIS, SECONDS, MINUTES, HOURS or
+	 *            DAYS
+	 * @throws IllegalArgumentException
+	 *             if the granularity is coarser than DAYS
+	 */
+	public CachedCurrentDateProvider(CurrentDateProvider source,
+			ChronoUnit granularity) {
+		if (granularity.compareTo(ChronoUnit.DAYS) > 0) {
+			throw new IllegalArgumentException("Granularity too coarse " + granularity);
+		}
+		this.source = source;
+		this.granularity = granularity;
+	}
+
+	public long now() {
+		long time = System.currentTimeMillis();
+		Reading r = reading;
+		if (time >= r.until) {
+			r = new Reading(source.now(), nextBoundary(time));
+			reading = r;
+		}
+		return r.now;
+	}
+
+	public Calendar today() {
+		Calendar today = new GregorianCalendar();
+		today.setTimeInMillis(now());
+		return today;
+	}
+
+	/**
+	 * Returns the start of the period after the one a time is in.
+	 *
+	 * @param time
+	 *            the time, in milliseconds since the epoch
+	 * @return the start of the next period, in milliseconds since the epoch.
+	 */
+	private long nextBoundary(long time) {
+		if (granularity == ChronoUnit.DAYS) {
+			ZonedDateTime t = Instant.ofEpochMilli(time).atZone(ZoneId.systemDefault());
+			return t.toLocalDate().plusDays(1).atStartOfDay(t.getZone())
+					.toInstant().toEpochMilli();
+		}
+		long period = granularity.getDuration().toMillis();
+		if (period == 0) {
+			return time + 1;
+		}
+		// periods are counted from UTC, so in the few time zones offset by
+		// half hours, hours start at half past
+		return (Math.floorDiv(time, period) + 1) * period;
+	}
+}
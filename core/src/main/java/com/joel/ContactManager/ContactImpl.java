@@ -0,0 +1,107 @@
+package com.joel.ContactManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A contact is a person we are making business with or may do in the future.
+ *
+ * Contacts have an ID (unique), a name (probably unique, but maybe not), and
+ * notes that the user may want to save about them.
+ */
+public class ContactImpl implements Contact {
+	private static final AtomicInteger nextId = new AtomicInteger(1);
+	private String name;
+	private volatile NotesLog notes;
+	private int id;
+	/**
+	 * The manager the contact belongs to, if any, which records changes to
+	 * its notes.
+	 */
+	ContactManagerImpl owner;
+	
+	/**
+	 * Construct the contact and assign it an ID.
+	 *
+	 * @param name the name of the contact
+	 * @param notes the initial notes for the contact.
+	 */
+	public ContactImpl(String name, String notes) {
+		this(name, notes, nextId.getAndIncrement());
+	}
+
+	/**
+	 * Construct the contact with a known ID, such as one read from disk.
+	 *
+	 * IDs allocated afterwards will be greater than this one.
+	 *
+	 * @param name the name of the contact
+	 * @param notes the initial notes for the contact.
+	 * @param id the ID of the contact.
+	 */
+	public ContactImpl(String name, String notes, int id) {
+		this.name = name;
+		this.notes = NotesLog.of(notes);
+		this.id = id;
+		nextId.accumulateAndGet(id + 1, Math::max);
+	}
+
+	/**
+	 * Construct a copy of a contact, with the same ID, sharing its notes,
+	 * which never change: adding notes to either makes a new log.
+	 *
+	 * @param c the contact to copy.
+	 */
+	ContactImpl(ContactImpl c) {
+		this.name = c.name;
+		this.notes = c.notes;
+		this.id = c.id;
+	}
+
+	/**
+	 * Returns the ID of the contact.
+	 *
+	 * @return the ID of the contact.
+	 */
+	public int getId() { return id; }
+
+	/**
+	 * Returns the name of the contact.
+	 *
+	 * @return the name of the contact.
+	 */
+	public String getName() { return name; }
+
+	/**
+	 * Returns our notes about the contact, if any.
+	 *
+	 * If we have not written anything about the contact, the empty string is
+	 * returned.
+	 *
+	 * @return a string with notes about the contact, maybe empty.
+	 */
+	public String getNotes() { return notes.toString(); }
+
+	/**
+	 * Add notes about the contact.
+	 *
+	 * @param note
+	 *            the notes to be added
+	 */
+	public void addNotes(String note) {
+		if (owner != null) {
+			owner.addContactNotes(this, note);
+		} else {
+			appendNotes(note);
+		}
+	}
+
+	/**
+	 * Add notes about the contact, without telling its manager.
+	 *
+	 * @param note
+	 *            the notes to be added
+	 */
+	void appendNotes(String note) {
+		notes = notes.append(note);
+	}	
+}
\ No newline at end of file
@@ -0,0 +1,1826 @@
+package com.joel.ContactManager;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class to manage your contacts and meetings.
+ *
+ * The manager can be shared between threads. Changes are serialized on the
+ * manager's monitor, while queries take no lock: contacts and meetings are
+ * kept in IdTables and a concurrent map, which can be read while they are
+ * written, and the lists in the indexes are never modified once published,
+ * but replaced by updated copies.
+ *
+ * For reports that make several queries, snapshot() returns a read-only
+ * copy of the manager that doesn't change while it is being read. It costs
+ * a copy of the contacts and of the day index.
+ */
+public class ContactManagerImpl implements ContactManager{
+	public static CurrentDateProvider todayProvider =
+			new GregorianCalendarCurrentDateProvider();
+	/**
+	 * How flush() and read() save and read the data.
+	 */
+	public static SnapshotCodec snapshotCodec =
+			new TextSnapshotCodec("/tmp/contacts.txt");
+	/**
+	 * Size in bytes the journal can reach before flush() folds it into a new
+	 * snapshot.
+	 */
+	public static long compactionThreshold = 16 << 20;
+	/**
+	 * Where the notes of contacts and past meetings created afterwards are
+	 * kept: off the heap in a NotesStore, or on the heap if null.
+	 */
+	public static NotesStore notesStore = null;
+	/**
+	 * Where flush() and read() count the bytes they write and read, and
+	 * read() its time.
+	 */
+	public static ContactManagerMetrics metrics = ContactManagerMetrics.NOOP;
+	private IdTable<ContactImpl> contactList;
+	/**
+	 * Future and past meetings, in one table: their state tells them apart.
+	 */
+	private IdTable<MeetingImpl> meetings;
+	/**
+	 * Number of future meetings in the table.
+	 */
+	private volatile int futureCount;
+	/**
+	 * Number of snapshots taken. Past meetings put in the table since the
+	 * last snapshot are not shared with any, and get notes in place.
+	 */
+	private int generation;
+	/**
+	 * Meetings of each contact, keyed by contact id, in chronological order.
+	 */
+	private IdTable<List<Meeting>> contactMeetings;
+	/**
+	 * Meetings of each day, keyed by epoch day in the time zone of each
+	 * meeting, in chronological order. Meetings in different zones can
+	 * be held in another order than their days: see getNextMeetings().
+	 */
+	private NavigableMap<Long,List<Meeting>> dayMeetings;
+	private ContactNameIndex nameIndex;
+	/**
+	 * One instance of each set of guests of the meetings, which the meetings
+	 * with those guests share.
+	 */
+	private final Map<GuestSet,GuestSet> guestSets;
+	/**
+	 * Changes since the last snapshot, or null if the manager has never been
+	 * saved or read.
+	 */
+	private volatile Journal journal;
+	/**
+	 * Number of the last change in the snapshot the manager was read from.
+	 */
+	private long snapshotSequence;
+	/**
+	 * Whether this is a snapshot, which can't be changed.
+	 */
+	private final boolean readOnly;
+	/**
+	 * The last snapshot taken, or null if the manager changed since.
+	 */
+	private volatile ContactManagerImpl snapshot;
+	/**
+	 * The flush request waiting for the writer thread, if any.
+	 */
+	private CompletableFuture<Void> pendingFlush;
+	/**
+	 * Orders meetings by date.
+	 */
+	private static final Comparator<Meeting> CHRONOLOGICAL =
+			(Meeting a, Meeting b) -> Long.compare(timeOf(a), timeOf(b));
+	/**
+	 * Milliseconds in a day, in UTC.
+	 */
+	private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+	/**
+	 * Seconds the writer and migration threads wait for work before ending.
+	 */
+	private static final long IDLE_SECONDS = 1;
+	/**
+	 * Runs the flush requests, one at a time.
+	 */
+	private ExecutorService writer;
+	/**
+	 * Size of the journal at the end of the last write, so that the next one
+	 * counts only the bytes appended since. Used by the writer thread only.
+	 */
+	private long journalWritten;
+	/**
+	 * Future meetings by date, to be moved to the past meetings when their
+	 * date comes. Meetings that got notes before are skipped.
+	 */
+	private PriorityQueue<FutureMeeting> dueMeetings;
+	/**
+	 * Date of the first meeting in dueMeetings, or Long.MAX_VALUE if none.
+	 */
+	private volatile long nextDue = Long.MAX_VALUE;
+	/**
+	 * Moves meetings to the past as their date comes, if started.
+	 */
+	private ScheduledExecutorService migrator;
+	/**
+	 * The next run of the migrator, if scheduled.
+	 */
+	private ScheduledFuture<?> migration;
+	
+	public ContactManagerImpl() {
+		this.readOnly = false;
+		this.contactList = new IdTable<ContactImpl>(0);
+		this.meetings = new IdTable<MeetingImpl>(0);
+		this.contactMeetings = new IdTable<List<Meeting>>(0);
+		this.dayMeetings = new ConcurrentSkipListMap<Long,List<Meeting>>();
+		this.nameIndex = new ContactNameIndex();
+		this.guestSets = new HashMap<GuestSet,GuestSet>();
+		this.dueMeetings = newDueMeetings(11);
+	}
+
+	/**
+	 * Returns an empty queue of future meetings by date.
+	 *
+	 * @param capacity the initial capacity of the queue.
+	 * @return the queue.
+	 */
+	private static PriorityQueue<FutureMeeting> newDueMeetings(int capacity) {
+		return new PriorityQueue<FutureMeeting>(Math.max(1, capacity),
+				(FutureMeeting a, FutureMeeting b) -> Long.compare(timeOf(a), timeOf(b)));
+	}
+
+	/**
+	 * Initialize a read-only copy of a manager.
+	 *
+	 * The meetings are shared: the manager replaces a shared past meeting
+	 * instead of adding notes to it in place. The lists in the indexes are
+	 * shared too, since they are never modified once published, and so are
+	 * the chunks of the tables of meetings and of meeting lists, which the
+	 * manager copies before it changes them (see IdTable). The name index is
+	 * shared, and its results are mapped to the contacts of the copy.
+	 *
+	 * The contacts are copied, since their notes can change in place, but
+	 * the copies share the notes, which don't. The day index is copied as
+	 * well, an entry per day with meetings. These copies are the cost of a
+	 * snapshot, and changes wait for them: see snapshot().
+	 *
+	 * @param source the manager to copy, whose monitor must be held.
+	 */
+	private ContactManagerImpl(ContactManagerImpl source) {
+		this.readOnly = true;
+		this.contactList = new IdTable<ContactImpl>(
+				maxId(source.contactList.values()) + 1);
+		for (ContactImpl c: source.contactList.values()) {
+			ContactImpl copy = new ContactImpl(c);
+			copy.owner = this;
+			contactList.put(copy.getId(), copy);
+		}
+		this.meetings = new IdTable<MeetingImpl>(source.meetings);
+		this.futureCount = source.futureCount;
+		// meetings are shared from now on
+		source.generation++;
+		this.contactMeetings = new IdTable<List<Meeting>>(source.contactMeetings);
+		this.dayMeetings = new TreeMap<Long,List<Meeting>>(source.dayMeetings);
+		this.nameIndex = source.nameIndex;
+		this.guestSets = source.guestSets;
+		this.snapshotSequence = source.getJournalSequence();
+	}
+
+	/**
+	 * Returns a read-only view of the manager as it is now.
+	 *
+	 * Queries on the snapshot take no lock and give consistent answers,
+	 * whatever changes are made to the manager meanwhile. Its methods that
+	 * would change it, or its contacts, throw UnsupportedOperationException.
+	 * The guests of its meetings are the contacts of the manager.
+	 *
+	 * Taking a snapshot copies the contacts and the day index of the manager,
+	 * and shares the rest with it. The snapshot is kept and returned again
+	 * until the manager changes. The copies are made with the monitor held,
+	 * so a snapshot taken after a change costs time and memory in proportion
+	 * to the number of contacts and of days with meetings, about 40 bytes a
+	 * contact, and changes wait for it: with 100000 contacts and 1000000
+	 * meetings over ten years, a few milliseconds (see SnapshotBenchmark).
+	 * Reports taken often from a manager with many contacts should share
+	 * a snapshot rather than take one after each change.
+	 *
+	 * @return the snapshot.
+	 */
+	public ContactManagerImpl snapshot() {
+		if (readOnly) {
+			return this;
+		}
+		ContactManagerImpl s = snapshot;
+		if (s == null) {
+			synchronized (this) {
+				s = snapshot;
+				if (s == null) {
+					s = new ContactManagerImpl(this);
+					snapshot = s;
+				}
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Check that the manager can be changed, and drop the last snapshot,
+	 * which is about to be out of date.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if the manager is a snapshot
+	 */
+	private void changing() {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Snapshots are read-only");
+		}
+		snapshot = null;
+	}
+		
+	/**
+	 * Add a new meeting to be held in the future.
+	 *
+	 * @param contacts
+	 *            a list of contacts that will participate in the meeting
+	 * @param date
+	 *            the date on which the meeting will take place
+	 * @return the ID for the meeting
+	 * @throws IllegalArgumentException
+	 *             if the meeting is set for a time in the past,
+	 *
+	 *             of if any contact is unknown / non-existent
+	 */
+	public synchronized int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+		changing();
+		validateFutureMeeting(contacts, date, todayProvider.now());
+		return createFutureMeeting(contacts, date);
+	}
+
+	/**
+	 * Add several new meetings to be held in the future.
+	 *
+	 * The whole batch is validated before any meeting is added, so either all
+	 * the meetings are added or none is. The meetings are then indexed
+	 * together, so that the meeting list of each guest and day is copied
+	 * once for the batch rather than once per meeting.
+	 *
+	 * @param requests
+	 *            the contacts and date of each meeting
+	 * @return the IDs for the meetings, in the order of the requests
+	 * @throws IllegalArgumentException
+	 *             if any meeting is set for a time in the past,
+	 *
+	 *             of if any contact is unknown / non-existent
+	 */
+	public synchronized List<Integer> addFutureMeetings(
+			Collection<MeetingRequest> requests) {
+		changing();
+		long now = todayProvider.now();
+		for (MeetingRequest r: requests) {
+			validateFutureMeeting(r.getContacts(), r.getDate(), now);
+		}
+		List<Meeting> created = new ArrayList<Meeting>(requests.size());
+		for (MeetingRequest r: requests) {
+			FutureMeeting m = new FutureMeetingImpl(r.getContacts(), r.getDate());
+			put(m);
+			futureCount++;
+			addDue(m);
+			created.add(m);
+		}
+		indexMeetings(created);
+		List<Integer> ids = new ArrayList<Integer>(requests.size());
+		for (Meeting m: created) {
+			if (journal != null) {
+				journal.futureMeeting((FutureMeeting)m);
+			}
+			ids.add(m.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Check that a future meeting can be added.
+	 *
+	 * @param contacts
+	 *            a list of contacts that will participate in the meeting
+	 * @param date
+	 *            the date on which the meeting will take place
+	 * @param now
+	 *            the current date, in milliseconds since the epoch
+	 * @throws IllegalArgumentException
+	 *             if the meeting is set for a time in the past,
+	 *
+	 *             of if any contact is unknown / non-existent
+	 */
+	private void validateFutureMeeting(Set<Contact> contacts, Calendar date,
+			long now) {
+		if (date.getTimeInMillis() < now) {
+			throw new IllegalArgumentException("Date not in future " + date);
+		}
+		if (contacts.size() == 0 || !validateContacts(contacts)) {
+			throw new IllegalArgumentException("Unknown contact(s)");			
+		}
+	}
+
+	/**
+	 * Add an already validated future meeting.
+	 *
+	 * @param contacts
+	 *            a list of contacts that will participate in the meeting
+	 * @param date
+	 *            the date on which the meeting will take place
+	 * @return the ID for the meeting
+	 */
+	private int createFutureMeeting(Set<Contact> contacts, Calendar date) {
+		FutureMeeting m = new FutureMeetingImpl(contacts, date);
+		insertFutureMeeting(m);
+		if (journal != null) {
+			journal.futureMeeting(m);
+		}
+		return m.getId();
+	}
+
+	/**
+	 * Add a future meeting with its id, without any validation.
+	 *
+	 * Its guests must already be contacts of this manager.
+	 *
+	 * @param m the meeting to add.
+	 */
+	void insertFutureMeeting(FutureMeeting m) {
+		changing();
+		put(m);
+		futureCount++;
+		indexMeeting(m);
+		addDue(m);
+	}
+
+	/**
+	 * Add a past meeting with its id, without any validation.
+	 *
+	 * Its guests must already be contacts of this manager.
+	 *
+	 * @param m the meeting to add.
+	 */
+	void insertPastMeeting(PastMeeting m) {
+		changing();
+		put(m);
+		indexMeeting(m);
+	}
+
+	/**
+	 * Put a meeting in the table, in place of any with the same id, and have
+	 * it share its set of guests with the other meetings with those guests.
+	 *
+	 * @param m the meeting, which must be a MeetingImpl.
+	 */
+	private void put(Meeting m) {
+		MeetingImpl impl = (MeetingImpl)m;
+		GuestSet guests = GuestSet.of(impl.contacts);
+		GuestSet shared = guestSets.putIfAbsent(guests, guests);
+		impl.contacts = shared != null ? shared : guests;
+		impl.generation = generation;
+		meetings.put(impl.getId(), impl);
+	}
+
+	/**
+	 * Add a contact with its id, without any validation.
+	 *
+	 * @param c the contact to add.
+	 */
+	void insertContact(ContactImpl c) {
+		changing();
+		c.owner = this;
+		contactList.put(c.getId(), c);
+		contactMeetings.put(c.getId(), new ArrayList<Meeting>());
+		nameIndex.add(c);
+	}
+
+	/**
+	 * Add many contacts with their ids to an empty manager, without any
+	 * validation.
+	 *
+	 * This must be done before the manager is shared between threads.
+	 *
+	 * @param contacts the contacts to add.
+	 * @throws IllegalStateException
+	 *             if the manager already has contacts
+	 */
+	void loadContacts(Collection<ContactImpl> contacts) {
+		if (!contactList.isEmpty()) {
+			throw new IllegalStateException("Loading contacts into non-empty manager");
+		}
+		int capacity = maxId(contacts) + 1;
+		contactList = new IdTable<ContactImpl>(capacity);
+		contactMeetings = new IdTable<List<Meeting>>(capacity);
+		for (ContactImpl c: contacts) {
+			insertContact(c);
+		}
+	}
+
+	/**
+	 * Add many meetings with their ids to a manager without meetings, without
+	 * any validation.
+	 *
+	 * Instead of inserting each meeting in its place in the indexes, all the
+	 * meetings are sorted once and appended to the indexes in order. Future
+	 * meetings whose date has passed are moved to the past meetings by the
+	 * next change or the migration thread, and queries find them past
+	 * meanwhile. Since the lists in the indexes are modified in place, this
+	 * must be done before the manager is shared between threads.
+	 *
+	 * @param past the past meetings to add.
+	 * @param future the future meetings to add.
+	 * @throws IllegalStateException
+	 *             if the manager already has meetings
+	 */
+	void loadMeetings(Collection<PastMeeting> past, Collection<FutureMeeting> future) {
+		if (!meetings.isEmpty()) {
+			throw new IllegalStateException("Loading meetings into non-empty manager");
+		}
+		changing();
+		int capacity = Math.max(maxId(past), maxId(future)) + 1;
+		meetings = new IdTable<MeetingImpl>(capacity);
+		futureCount = future.size();
+		List<Meeting> all = new ArrayList<Meeting>(past.size() + future.size());
+		for (PastMeeting m: past) {
+			put(m);
+			all.add(m);
+		}
+		for (FutureMeeting m: future) {
+			put(m);
+			all.add(m);
+		}
+		all.sort(CHRONOLOGICAL);
+		// in date order, each meeting goes to the end of the queue at once
+		dueMeetings = newDueMeetings(future.size());
+		List<Meeting> day = null;
+		long lastDay = 0;
+		for (Meeting m: all) {
+			if (m instanceof FutureMeeting) {
+				dueMeetings.add((FutureMeeting)m);
+			}
+			for (Contact c: m.getContacts()) {
+				contactMeetings.get(c.getId()).add(m);
+			}
+			long epochDay = dayOf(m);
+			if (day == null || epochDay != lastDay) {
+				day = dayMeetings.get(epochDay);
+				if (day == null) {
+					day = new ArrayList<Meeting>();
+					dayMeetings.put(epochDay, day);
+				}
+				lastDay = epochDay;
+			}
+			day.add(m);
+		}
+		nextDue = dueMeetings.isEmpty() ? Long.MAX_VALUE : timeOf(dueMeetings.peek());
+	}
+
+	/**
+	 * Returns the largest id of some contacts or meetings, to size the
+	 * tables that will hold them.
+	 *
+	 * @param items the contacts or meetings.
+	 * @return the largest id, or 0 if there are none.
+	 */
+	private static int maxId(Collection<?> items) {
+		int max = 0;
+		for (Object o: items) {
+			int id = o instanceof Contact ? ((Contact)o).getId() : ((Meeting)o).getId();
+			max = Math.max(max, id);
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the PAST meeting with the requested ID, or null if it there is
+	 * none.
+	 * 
+	 * A future meeting whose date has passed is a past meeting without
+	 * notes, keeping its id, even before the manager moves it to the past
+	 * meetings (see asOf()).
+	 *
+	 * @param id
+	 *            the ID for the meeting
+	 * @return the meeting with the requested ID, or null if it there is none.
+	 * @throws IllegalArgumentException
+	 *             if there is a meeting with that ID happening in the future
+	 */
+	public PastMeeting getPastMeeting(int id) {
+		Meeting m = asOf(meetings.get(id), todayProvider.now());
+		if (m == null) {
+			return null;
+		}
+		if (!(m instanceof PastMeeting)) {
+			throw new IllegalArgumentException();
+		}
+		return (PastMeeting)m;
+	}
+
+	/**
+	 * Returns the FUTURE meeting with the requested ID, or null if there is
+	 * none.
+	 *
+	 * @param id
+	 *            the ID for the meeting
+	 * @return the meeting with the requested ID, or null if it there is none.
+	 * @throws IllegalArgumentException
+	 *             if there is a meeting with that ID happening in the past
+	 */
+	public FutureMeeting getFutureMeeting(int id) {
+		Meeting m = asOf(meetings.get(id), todayProvider.now());
+		if (m == null) {
+			return null;
+		}
+		if (!(m instanceof FutureMeeting)) {
+			throw new IllegalArgumentException();
+		}
+		return (FutureMeeting)m;
+	}
+
+	/**
+	 * Returns the meeting with the requested ID, or null if it there is none.
+	 *
+	 * @param id
+	 *            the ID for the meeting
+	 * @return the meeting with the requested ID, or null if it there is none.
+	 */
+	public Meeting getMeeting(int id) {
+		return asOf(meetings.get(id), todayProvider.now());
+	}
+
+	/**
+	 * Returns the list of meetings scheduled with this contact.
+	 *
+	 * If there are none, the returned list will be empty. Otherwise, the list
+	 * will be chronologically sorted and will not contain any duplicates.
+	 * The list is the one kept in the index, so it must not be modified.
+	 *
+	 * @param contact
+	 *            one of the user’s contacts
+	 * @return the list of meeting(s) scheduled with this contact (maybe
+	 *         empty).
+	 * @throws IllegalArgumentException
+	 *             if the contact does not exist
+	 */
+	private List<Meeting>getMeetingList(Contact contact) {	
+		if (!contactList.containsKey(contact.getId())) {
+			throw new IllegalArgumentException("Contact " + contact.getName()
+					+ " does not exist.");
+		}
+		return contactMeetings.get(contact.getId());
+	}
+
+	/**
+	 * Returns the list of future meetings scheduled with this contact.
+	 *
+	 * If there are none, the returned list will be empty. Otherwise, the list
+	 * will be chronologically sorted and will not contain any duplicates.
+	 *
+	 * @param contact
+	 *            one of the user’s contacts
+	 * @return the list of future meeting(s) scheduled with this contact (maybe
+	 *         empty).
+	 * @throws IllegalArgumentException
+	 *             if the contact does not exist
+	 */
+	public List<Meeting> getFutureMeetingList(Contact contact) {
+		List<Meeting> meetings = getMeetingList(contact);
+		int first = firstAfter(meetings, todayProvider.now());
+		return new ArrayList<Meeting>(meetings.subList(first, meetings.size()));
+	}
+
+	/**
+	 * Returns the list of meetings that are scheduled for, or that took place
+	 * on, the specified date
+	 *
+	 * If there are none, the returned list will be empty. Otherwise, the list
+	 * will be chronologically sorted and will not contain any duplicates.
+	 *
+	 * @param date
+	 *            the date
+	 * @return the list of meetings
+	 */
+	public List<Meeting> getFutureMeetingList(Calendar date) {
+		List<Meeting> result = new ArrayList<Meeting>();
+		List<Meeting> meetings = dayMeetings.get(epochDay(date));
+		if (meetings != null) {
+			addAsOf(result, meetings, todayProvider.now());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the list of meetings that are scheduled for, or that took place
+	 * on, any day between the two dates, both included.
+	 *
+	 * If there are none, the returned list will be empty. Otherwise, the list
+	 * will be chronologically sorted and will not contain any duplicates.
+	 *
+	 * @param from
+	 *            the first day
+	 * @param to
+	 *            the last day
+	 * @return the list of meetings
+	 */
+	public List<Meeting> getMeetingsBetween(Calendar from, Calendar to) {
+		List<Meeting> result = new ArrayList<Meeting>();
+		if (epochDay(from) > epochDay(to)) {
+			return result;
+		}
+		long now = todayProvider.now();
+		for (List<Meeting> meetings:
+				dayMeetings.subMap(epochDay(from), true, epochDay(to), true).values()) {
+			addAsOf(result, meetings, now);
+		}
+		// meetings are filed under their day in their own time zone, so a
+		// meeting of one day can be held before one of the day before;
+		// the days are sorted already, which the sort takes advantage of
+		result.sort(CHRONOLOGICAL);
+		return result;
+	}
+
+	/**
+	 * Add meetings to a list as they stand at a time (see asOf()).
+	 *
+	 * @param result the list to add to.
+	 * @param meetings the meetings to add.
+	 * @param now the time, in milliseconds since the epoch.
+	 */
+	private static void addAsOf(List<Meeting> result, List<Meeting> meetings,
+			long now) {
+		for (Meeting m: meetings) {
+			result.add(asOf(m, now));
+		}
+	}
+
+	/**
+	 * Returns a meeting as it stands at a time.
+	 *
+	 * Queries don't change the manager, so a future meeting whose date has
+	 * come may still be in the tables, until a change or the migration thread
+	 * of scheduleMigration() moves it to the past meetings. Meanwhile, queries
+	 * answer with the past meeting without notes it becomes, which is the
+	 * one then put in its place.
+	 *
+	 * @param m the meeting, or null.
+	 * @param now the time, in milliseconds since the epoch.
+	 * @return the meeting, or the past meeting it has become, or null.
+	 */
+	private static Meeting asOf(Meeting m, long now) {
+		if (m instanceof FutureMeetingImpl && timeOf(m) <= now) {
+			return ((FutureMeetingImpl)m).asPast();
+		}
+		return m;
+	}
+
+	/**
+	 * Returns the next meetings to be held after the current date.
+	 *
+	 * The list will be chronologically sorted and will contain at most n
+	 * meetings.
+	 *
+	 * @param n
+	 *            the maximum number of meetings to return
+	 * @return the list of meetings (maybe empty).
+	 * @throws IllegalArgumentException
+	 *             if n is negative
+	 */
+	public List<Meeting> getNextMeetings(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Negative number of meetings " + n);
+		}
+		List<Meeting> result = new ArrayList<Meeting>();
+		if (n == 0) {
+			return result;
+		}
+		long now = todayProvider.now();
+		// meetings are filed under their day in their own time zone, whose
+		// offset is less than a day either way: a meeting after now is
+		// filed at most a day before the day of now in UTC, and one filed
+		// under a day is held after the start of the day before in UTC
+		long first = Math.floorDiv(now, DAY_MILLIS) - 1;
+		for (Map.Entry<Long,List<Meeting>> day:
+				dayMeetings.tailMap(first, true).entrySet()) {
+			if (result.size() >= n) {
+				result.sort(CHRONOLOGICAL);
+				result.subList(n, result.size()).clear();
+				if (timeOf(result.get(n - 1)) <= (day.getKey() - 1) * DAY_MILLIS) {
+					return result;
+				}
+			}
+			for (Meeting m: day.getValue()) {
+				if (timeOf(m) > now) {
+					result.add(m);
+				}
+			}
+		}
+		result.sort(CHRONOLOGICAL);
+		if (result.size() > n) {
+			result.subList(n, result.size()).clear();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the day of a date as the number of days since 1970-01-01,
+	 * ignoring the time of day and using the date's own time zone.
+	 *
+	 * @param date the date
+	 * @return the epoch day of the date.
+	 */
+	static long epochDay(Calendar date) {
+		return LocalDate.of(date.get(Calendar.YEAR),
+				date.get(Calendar.MONTH) + 1,
+				date.get(Calendar.DAY_OF_MONTH)).toEpochDay();
+	}
+
+	/**
+	 * Returns the date of a meeting in milliseconds since the epoch, without
+	 * building a Calendar for meetings of this package.
+	 *
+	 * @param m the meeting
+	 * @return the date of the meeting in milliseconds since the epoch.
+	 */
+	static long timeOf(Meeting m) {
+		return m instanceof MeetingImpl ? ((MeetingImpl)m).getTime()
+				: m.getDate().getTimeInMillis();
+	}
+
+	/**
+	 * Returns the day of a meeting as the number of days since 1970-01-01,
+	 * without building a Calendar for meetings of this package.
+	 *
+	 * @param m the meeting
+	 * @return the epoch day of the meeting.
+	 */
+	static long dayOf(Meeting m) {
+		return m instanceof MeetingImpl ? ((MeetingImpl)m).getDay()
+				: epochDay(m.getDate());
+	}
+
+	/**
+	 * Returns the start of a day given as the number of days since
+	 * 1970-01-01, in the default time zone.
+	 *
+	 * @param epochDay the epoch day
+	 * @return the date at the start of that day.
+	 */
+	static Calendar dateOfEpochDay(long epochDay) {
+		LocalDate day = LocalDate.ofEpochDay(epochDay);
+		return new GregorianCalendar(day.getYear(), day.getMonthValue() - 1,
+				day.getDayOfMonth());
+	}
+
+	/**
+	 * Returns the position of the first meeting dated after a given time in a
+	 * chronologically sorted list, or the size of the list if there is none.
+	 *
+	 * @param meetings the sorted list.
+	 * @param time the time, in milliseconds since the epoch.
+	 * @return the position of the first meeting after the time.
+	 */
+	private static int firstAfter(List<Meeting> meetings, long time) {
+		int low = 0;
+		int high = meetings.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (timeOf(meetings.get(mid)) <= time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns a copy of a chronologically sorted list with a meeting inserted
+	 * after any meeting with the same date.
+	 *
+	 * @param meetings the sorted list.
+	 * @param m the meeting to insert.
+	 * @return the new sorted list.
+	 */
+	private static List<Meeting> insertChronologically(List<Meeting> meetings,
+			Meeting m) {
+		int i = firstAfter(meetings, timeOf(m));
+		List<Meeting> copy = new ArrayList<Meeting>(meetings.size() + 1);
+		copy.addAll(meetings.subList(0, i));
+		copy.add(m);
+		copy.addAll(meetings.subList(i, meetings.size()));
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of a chronologically sorted list with a meeting replaced
+	 * by another one with the same id and date.
+	 *
+	 * @param meetings the sorted list.
+	 * @param m the meeting to put in place of the one with the same id.
+	 * @return the new sorted list.
+	 */
+	private static List<Meeting> replaceChronologically(List<Meeting> meetings,
+			Meeting m) {
+		List<Meeting> copy = new ArrayList<Meeting>(meetings);
+		copy.set(positionOf(meetings, m), m);
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of a chronologically sorted list with other meetings
+	 * inserted, each after any meeting with the same date.
+	 *
+	 * @param meetings the sorted list.
+	 * @param added the meetings to insert, chronologically sorted.
+	 * @return the new sorted list.
+	 */
+	private static List<Meeting> mergeChronologically(List<Meeting> meetings,
+			List<Meeting> added) {
+		List<Meeting> merged = new ArrayList<Meeting>(meetings.size() + added.size());
+		int i = 0;
+		for (Meeting m: added) {
+			int j = i + firstAfter(meetings.subList(i, meetings.size()), timeOf(m));
+			merged.addAll(meetings.subList(i, j));
+			merged.add(m);
+			i = j;
+		}
+		merged.addAll(meetings.subList(i, meetings.size()));
+		return merged;
+	}
+
+	/**
+	 * Returns a copy of a chronologically sorted list with some meetings
+	 * replaced by other ones with the same ids and dates.
+	 *
+	 * @param meetings the sorted list.
+	 * @param replacements the meetings to put in place of the ones with the
+	 *            same ids.
+	 * @return the new sorted list.
+	 */
+	private static List<Meeting> replaceChronologically(List<Meeting> meetings,
+			List<Meeting> replacements) {
+		List<Meeting> copy = new ArrayList<Meeting>(meetings);
+		for (Meeting m: replacements) {
+			copy.set(positionOf(meetings, m), m);
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the position in a chronologically sorted list of the meeting
+	 * with the same id and date as a given one.
+	 *
+	 * @param meetings the sorted list, which holds such a meeting.
+	 * @param m the meeting to find.
+	 * @return the position of the meeting with the same id.
+	 */
+	private static int positionOf(List<Meeting> meetings, Meeting m) {
+		// meetings with the same date are just before the first one after it
+		int i = firstAfter(meetings, timeOf(m)) - 1;
+		while (meetings.get(i).getId() != m.getId()) {
+			i--;
+		}
+		return i;
+	}
+	
+	/**
+	 * Returns the list of past meetings in which this contact has participated.
+	 *
+	 * If there are none, the returned list will be empty. Otherwise, the list
+	 * will be chronologically sorted and will not contain any duplicates.
+	 *
+	 * @param contact
+	 *            one of the user’s contacts
+	 * @return the list of future meeting(s) scheduled with this contact (maybe
+	 *         empty).
+	 * @throws IllegalArgumentException
+	 *             if the contact does not exist
+	 */
+	public List<PastMeeting> getPastMeetingList(Contact contact) {
+		List<PastMeeting> list = new ArrayList<PastMeeting>();
+		List<Meeting> meetings = getMeetingList(contact);
+		// past meetings can't be dated after today, and future meetings
+		// dated before today are past meetings, moved or not
+		long now = todayProvider.now();
+		int last = firstAfter(meetings, now);
+		for (Meeting meet: meetings.subList(0, last)) {
+			list.add((PastMeeting)asOf(meet, now));
+		}
+		return list;
+	}
+
+	/**
+	 * Create a new record for a meeting that took place in the past.
+	 *
+	 * @param contacts
+	 *            a list of participants
+	 * @param date
+	 *            the date on which the meeting took place
+	 * @param text
+	 *            messages to be added about the meeting.
+	 * @throws IllegalArgumentException
+	 *             if the list of contacts is
+	 *
+	 *             empty, or any of the contacts does not exist
+	 * @throws NullPointerException
+	 *             if any of the arguments is null
+	 */
+	public synchronized void addNewPastMeeting(Set<Contact> contacts, Calendar date,
+			String text) {
+		changing();
+		if (date.getTimeInMillis() > todayProvider.now()) {
+			throw new IllegalArgumentException("Date not in past " + date);
+		}
+		if (contacts.size() == 0 || !validateContacts(contacts)) {
+			throw new IllegalArgumentException("Unknown contact(s)");			
+		}
+		if (text == null) {
+			throw new NullPointerException("Expected meeting notes");
+		}
+		PastMeeting m = new PastMeetingImpl(contacts, date, text);
+		insertPastMeeting(m);
+		if (journal != null) {
+			journal.pastMeeting(m);
+		}
+	}
+
+	/**
+	 * Add notes to a meeting.
+	 *
+	 * This method is used when a future meeting takes place, and is then
+	 * converted to a past meeting (with notes).
+	 *
+	 * It can be also used to add notes to a past meeting at a later date.
+	 *
+	 * @param id
+	 *            the ID of the meeting
+	 * @param text
+	 *            messages to be added about the meeting.
+	 * @throws IllegalArgumentException
+	 *             if the meeting does not exist
+	 * @throws IllegalStateException
+	 *             if the meeting is set for a date in the future
+	 * @throws NullPointerException
+	 *             if the notes are null
+	 */
+	public synchronized void addMeetingNotes(int id, String text) {
+		changing();
+		if (text == null) {
+			throw new NullPointerException("Expected meeting notes");
+		}
+		long now = migrateDue();
+		MeetingImpl m = meetings.get(id);
+		if (m != null && m.state() == MeetingImpl.State.FUTURE && m.getTime() > now) {
+			throw new IllegalStateException(
+					"Attempt to add note to future meeting");
+		}
+		applyMeetingNotes(id, text);
+		if (journal != null) {
+			journal.meetingNotes(id, text);
+		}
+	}
+
+	/**
+	 * Add notes to a meeting, turning it into a past meeting if needed,
+	 * without checking its date.
+	 *
+	 * @param id
+	 *            the ID of the meeting
+	 * @param text
+	 *            messages to be added about the meeting.
+	 * @throws IllegalArgumentException
+	 *             if the meeting does not exist
+	 */
+	void applyMeetingNotes(int id, String text) {
+		changing();
+		MeetingImpl m = meetings.get(id);
+		if (m == null) {
+			throw new IllegalArgumentException(
+					"Attempt to add note to non-existing meeting");
+		}
+		if (m.state() == MeetingImpl.State.FUTURE) {
+			moveToPast((FutureMeeting)m, text);
+		} else if (m.generation == generation) {
+			((PastMeetingImpl)m).appendNotes(text);
+		} else {
+			// a snapshot may share the meeting, so it is not changed
+			PastMeeting pm = new PastMeetingImpl((PastMeeting)m, text);
+			put(pm);
+			reindexMeeting(pm);
+		}
+	}
+
+	/**
+	 * Turn a future meeting into a past meeting with the same id.
+	 *
+	 * @param fm
+	 *            the future meeting
+	 * @param text
+	 *            the notes of the past meeting
+	 */
+	private void moveToPast(FutureMeeting fm, String text) {
+		reindexMeeting(toPast(fm, text));
+	}
+
+	/**
+	 * Put a past meeting with the same id in the table in place of a future
+	 * meeting, leaving the indexes to the caller.
+	 *
+	 * @param fm
+	 *            the future meeting
+	 * @param text
+	 *            the notes of the past meeting
+	 * @return the past meeting.
+	 */
+	private PastMeeting toPast(FutureMeeting fm, String text) {
+		PastMeeting m;
+		if (text.isEmpty() && fm instanceof FutureMeetingImpl) {
+			// without notes, it becomes the past meeting queries already found
+			PastMeetingImpl past = ((FutureMeetingImpl)fm).asPast();
+			put(past);
+			// snapshots sharing the future meeting find that past meeting too,
+			// so it is as shared as the future meeting was
+			past.generation = ((MeetingImpl)fm).generation;
+			m = past;
+		} else {
+			m = new PastMeetingImpl(fm, text);
+			put(m);
+		}
+		futureCount--;
+		return m;
+	}
+
+	/**
+	 * Move the future meetings whose date has come to the past meetings,
+	 * without notes. The monitor must be held.
+	 *
+	 * Changes that depend on whether a meeting is past call this first.
+	 * Queries don't: they take no lock, and find due meetings past by their
+	 * date (see asOf()).
+	 *
+	 * @return the current date, in milliseconds since the epoch.
+	 */
+	private long migrateDue() {
+		long now = todayProvider.now();
+		if (nextDue <= now) {
+			migrate(now);
+		}
+		return now;
+	}
+
+	/**
+	 * Move the future meetings due by a date to the past meetings.
+	 *
+	 * The meetings moved are reindexed together, so the meeting list of a
+	 * guest with many meetings due is copied once.
+	 *
+	 * @param now
+	 *            the date, in milliseconds since the epoch
+	 */
+	private synchronized void migrate(long now) {
+		List<Meeting> moved = new ArrayList<Meeting>();
+		FutureMeeting fm;
+		while ((fm = dueMeetings.peek()) != null && timeOf(fm) <= now) {
+			dueMeetings.poll();
+			// meetings that got notes early are no longer future meetings
+			if (meetings.get(fm.getId()) == fm) {
+				changing();
+				moved.add(toPast(fm, ""));
+			}
+		}
+		reindexMeetings(moved);
+		nextDue = fm == null ? Long.MAX_VALUE : timeOf(fm);
+	}
+
+	/**
+	 * Start a thread that moves each future meeting to the past meetings as
+	 * soon as its date comes, so the tables and snapshots saved from them
+	 * keep up with the date.
+	 *
+	 * The thread waits on the system clock for the date of the next meeting
+	 * due, and stops with the program, when there are no more meetings due,
+	 * or when the manager is closed.
+	 */
+	public synchronized void scheduleMigration() {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Snapshots are read-only");
+		}
+		if (migrator == null) {
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+					daemonThreads("ContactManager migrator"));
+			executor.setKeepAliveTime(IDLE_SECONDS, TimeUnit.SECONDS);
+			executor.allowCoreThreadTimeOut(true);
+			// so that no cancelled run keeps the thread waiting
+			executor.setRemoveOnCancelPolicy(true);
+			migrator = executor;
+			scheduleNextMigration();
+		}
+	}
+
+	/**
+	 * Stop the migration thread, if started, and let the writer thread end
+	 * once the writes already requested are done.
+	 *
+	 * Both threads end by themselves when they have nothing left to do, but
+	 * the migration thread waits for the next meeting due, however far, and
+	 * keeps the manager meanwhile. The manager can still be used after it is
+	 * closed: flushAsync() starts a new writer thread, and
+	 * scheduleMigration() a new migration thread.
+	 */
+	public synchronized void close() {
+		if (migrator != null) {
+			migrator.shutdownNow();
+			migrator = null;
+			migration = null;
+		}
+		if (writer != null) {
+			writer.shutdown();
+			writer = null;
+		}
+	}
+
+	/**
+	 * Schedule the migration thread, if any, to run when the next meeting is
+	 * due. The monitor must be held.
+	 */
+	private void scheduleNextMigration() {
+		if (migrator == null) {
+			return;
+		}
+		if (migration != null) {
+			migration.cancel(false);
+			migration = null;
+		}
+		if (nextDue != Long.MAX_VALUE) {
+			long delay = Math.max(0, nextDue - todayProvider.now());
+			migration = migrator.schedule(() -> {
+				synchronized (this) {
+					migration = null;
+					migrate(todayProvider.now());
+					scheduleNextMigration();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Add a future meeting to dueMeetings, to be moved to the past meetings
+	 * when its date comes.
+	 *
+	 * @param m the future meeting.
+	 */
+	private void addDue(FutureMeeting m) {
+		dueMeetings.add(m);
+		if (timeOf(m) < nextDue) {
+			nextDue = timeOf(m);
+			scheduleNextMigration();
+		}
+	}
+
+	/**
+	 * Returns a factory of daemon threads, which don't keep the program
+	 * running.
+	 *
+	 * @param name the name of the threads.
+	 * @return the thread factory.
+	 */
+	static ThreadFactory daemonThreads(String name) {
+		return (Runnable r) -> {
+			Thread t = new Thread(r, name);
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	/**
+	 * Add a meeting to the meeting list of each of its guests and to the
+	 * meeting list of its day.
+	 *
+	 * @param m the meeting to index.
+	 */
+	private void indexMeeting(Meeting m) {
+		for (Contact c: m.getContacts()) {
+			contactMeetings.put(c.getId(),
+					insertChronologically(contactMeetings.get(c.getId()), m));
+		}
+		long day = dayOf(m);
+		List<Meeting> meetings = dayMeetings.get(day);
+		if (meetings == null) {
+			meetings = new ArrayList<Meeting>();
+		}
+		dayMeetings.put(day, insertChronologically(meetings, m));
+	}
+
+	/**
+	 * Replace a meeting in the meeting list of each of its guests and of its
+	 * day by a new version of it with the same id, date and guests.
+	 *
+	 * @param m the meeting to put in place of the old one.
+	 */
+	private void reindexMeeting(Meeting m) {
+		for (Contact c: m.getContacts()) {
+			contactMeetings.put(c.getId(),
+					replaceChronologically(contactMeetings.get(c.getId()), m));
+		}
+		long day = dayOf(m);
+		dayMeetings.put(day, replaceChronologically(dayMeetings.get(day), m));
+	}
+
+	/**
+	 * Add meetings to the meeting lists of their guests and of their days.
+	 *
+	 * The meetings are sorted and grouped by list first, so that each list
+	 * is copied and published once, with all its new meetings merged in.
+	 *
+	 * @param batch the meetings to index.
+	 */
+	private void indexMeetings(List<Meeting> batch) {
+		Map<Integer, List<Meeting>> byContact = new HashMap<Integer, List<Meeting>>();
+		Map<Long, List<Meeting>> byDay = new HashMap<Long, List<Meeting>>();
+		groupChronologically(batch, byContact, byDay);
+		for (Map.Entry<Integer, List<Meeting>> e: byContact.entrySet()) {
+			contactMeetings.put(e.getKey(),
+					mergeChronologically(contactMeetings.get(e.getKey()), e.getValue()));
+		}
+		for (Map.Entry<Long, List<Meeting>> e: byDay.entrySet()) {
+			List<Meeting> meetings = dayMeetings.get(e.getKey());
+			dayMeetings.put(e.getKey(), meetings == null ? e.getValue()
+					: mergeChronologically(meetings, e.getValue()));
+		}
+	}
+
+	/**
+	 * Replace meetings in the meeting lists of their guests and of their
+	 * days by new versions of them with the same ids, dates and guests,
+	 * copying and publishing each list once.
+	 *
+	 * @param batch the meetings to put in place of the old ones.
+	 */
+	private void reindexMeetings(List<Meeting> batch) {
+		Map<Integer, List<Meeting>> byContact = new HashMap<Integer, List<Meeting>>();
+		Map<Long, List<Meeting>> byDay = new HashMap<Long, List<Meeting>>();
+		groupChronologically(batch, byContact, byDay);
+		for (Map.Entry<Integer, List<Meeting>> e: byContact.entrySet()) {
+			contactMeetings.put(e.getKey(),
+					replaceChronologically(contactMeetings.get(e.getKey()), e.getValue()));
+		}
+		for (Map.Entry<Long, List<Meeting>> e: byDay.entrySet()) {
+			dayMeetings.put(e.getKey(),
+					replaceChronologically(dayMeetings.get(e.getKey()), e.getValue()));
+		}
+	}
+
+	/**
+	 * Sort meetings by date and sort them out by guest and by day.
+	 *
+	 * Meetings with the same date keep their order in the batch, as they
+	 * would if they were indexed one by one.
+	 *
+	 * @param batch the meetings.
+	 * @param byContact receives the meetings of each guest, by contact id.
+	 * @param byDay receives the meetings of each day, by epoch day.
+	 */
+	private static void groupChronologically(List<Meeting> batch,
+			Map<Integer, List<Meeting>> byContact, Map<Long, List<Meeting>> byDay) {
+		List<Meeting> sorted = new ArrayList<Meeting>(batch);
+		sorted.sort(CHRONOLOGICAL);
+		for (Meeting m: sorted) {
+			for (Contact c: m.getContacts()) {
+				byContact.computeIfAbsent(c.getId(), (Integer id) -> new ArrayList<Meeting>())
+						.add(m);
+			}
+			byDay.computeIfAbsent(dayOf(m), (Long day) -> new ArrayList<Meeting>()).add(m);
+		}
+	}
+
+	/**
+	 * Validate that all contacts in a set are known.
+	 *
+	 * A contact is known if it is the very object stored under its id, so a
+	 * different contact that happens to have the same id is rejected.
+	 *
+	 * @param contacts
+	 *            the contacts to validate.
+	 * @throws NullPointerException
+	 *             if the contact list is null
+	 */	
+	private boolean validateContacts(Collection<Contact> contacts) {
+		for (Contact c: contacts) {
+			if (c == null || contactList.get(c.getId()) != c) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Create a new contact with the specified name and notes.
+	 *
+	 * @param name
+	 *            the name of the contact.
+	 * @param notes
+	 *            notes to be added about the contact.
+	 * @throws NullPointerException
+	 *             if the name or the notes are null
+	 */
+	public synchronized void addNewContact(String name, String notes) {
+		changing();
+		// the name index needs the name, and the journal the notes, so
+		// nothing is inserted without them
+		if (name == null) {
+			throw new NullPointerException("Expected contact name");
+		}
+		if (notes == null) {
+			throw new NullPointerException("Expected contact notes");
+		}
+		ContactImpl c = new ContactImpl(name, notes);
+		insertContact(c);
+		if (journal != null) {
+			journal.newContact(c);
+		}
+	}
+
+	/**
+	 * Returns a list containing the contacts that correspond to the IDs.
+	 *
+	 * @param ids
+	 *            an arbitrary number of contact IDs
+	 * @return a list containing the contacts that correspond to the IDs.
+	 * @throws IllegalArgumentException
+	 *             if any of the IDs does not correspond to a real contact
+	 */
+	public Set<Contact> getContacts(int... ids) {
+		Set<Contact> matches = new HashSet<Contact>();
+		for (int id: ids) {
+			Contact c = contactList.get(id);
+			if (c == null) {
+				throw new IllegalArgumentException("No contact with id "+ id);
+			}
+			matches.add(c);
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns a list with the contacts whose name contains that string.
+	 *
+	 * @param name
+	 *            the string to search for
+	 * @return a list with the contacts whose name contains that string.
+	 * @throws NullPointerException
+	 *             if the parameter is null
+	 */
+	public Set<Contact> getContacts(String name) {
+		if (name == null) {
+			throw new NullPointerException("Search for null string");
+		}
+		if (name.isEmpty()) {
+			return new HashSet<Contact>(contactList.values());
+		}
+		return known(nameIndex.containing(name));
+	}
+
+	/**
+	 * Returns a list with the contacts whose name starts with that string.
+	 *
+	 * This is cheaper than searching for contacts whose name contains the
+	 * string, and is meant for completing names as they are typed.
+	 *
+	 * @param prefix
+	 *            the string to search for
+	 * @return a list with the contacts whose name starts with that string.
+	 * @throws NullPointerException
+	 *             if the parameter is null
+	 */
+	public Set<Contact> getContactsByPrefix(String prefix) {
+		if (prefix == null) {
+			throw new NullPointerException("Search for null string");
+		}
+		return known(nameIndex.startingWith(prefix));
+	}
+
+	/**
+	 * Returns the contacts of this manager for the contacts found in the name
+	 * index, which in a snapshot are copies, or missing if added after the
+	 * snapshot was taken.
+	 *
+	 * @param found the contacts found in the name index.
+	 * @return the contacts of this manager among them.
+	 */
+	private Set<Contact> known(Set<Contact> found) {
+		if (!readOnly) {
+			return found;
+		}
+		Set<Contact> copies = new HashSet<Contact>();
+		for (Contact c: found) {
+			Contact copy = contactList.get(c.getId());
+			if (copy != null) {
+				copies.add(copy);
+			}
+		}
+		return copies;
+	}
+
+	/**
+	 * Returns all the contacts.
+	 *
+	 * @return all the contacts, not to be modified.
+	 */
+	Collection<Contact> contacts() {
+		return Collections.unmodifiableCollection(contactList.values());
+	}
+
+	/**
+	 * Returns all the past meetings.
+	 *
+	 * @return all the past meetings, not to be modified.
+	 */
+	Collection<PastMeeting> pastMeetings() {
+		return meetingsOf(PastMeeting.class, meetings.size() - futureCount);
+	}
+
+	/**
+	 * Returns all the future meetings.
+	 *
+	 * @return all the future meetings, not to be modified.
+	 */
+	Collection<FutureMeeting> futureMeetings() {
+		return meetingsOf(FutureMeeting.class, futureCount);
+	}
+
+	/**
+	 * Returns the meetings of one kind in the table.
+	 *
+	 * @param type the kind of meetings.
+	 * @param size the number of meetings of that kind.
+	 * @return the meetings of that kind, not to be modified.
+	 */
+	private <T extends Meeting> Collection<T> meetingsOf(final Class<T> type,
+			final int size) {
+		return new AbstractCollection<T>() {
+			public Iterator<T> iterator() {
+				final Iterator<MeetingImpl> all = meetings.values().iterator();
+				return new Iterator<T>() {
+					private T next = advance();
+
+					private T advance() {
+						while (all.hasNext()) {
+							MeetingImpl m = all.next();
+							if (type.isInstance(m)) {
+								return type.cast(m);
+							}
+						}
+						return null;
+					}
+
+					public boolean hasNext() {
+						return next != null;
+					}
+
+					public T next() {
+						if (next == null) {
+							throw new NoSuchElementException();
+						}
+						T m = next;
+						next = advance();
+						return m;
+					}
+				};
+			}
+
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Returns the contact with an id, or null if there is none.
+	 *
+	 * @param id the id of the contact
+	 * @return the contact with that id, or null if there is none.
+	 */
+	ContactImpl getContact(int id) {
+		return contactList.get(id);
+	}
+
+	/**
+	 * Returns the number of the last change made to the manager, to be saved
+	 * with a snapshot.
+	 *
+	 * @return the number of the last change.
+	 */
+	long getJournalSequence() {
+		return journal == null ? snapshotSequence : journal.getSequence();
+	}
+
+	/**
+	 * Set the number of the last change in the snapshot being read.
+	 *
+	 * @param sequence the number of the last change in the snapshot.
+	 */
+	void setSnapshotSequence(long sequence) {
+		this.snapshotSequence = sequence;
+	}
+
+	/**
+	 * Add notes about one of the manager's contacts, recording the change.
+	 *
+	 * @param c
+	 *            the contact
+	 * @param note
+	 *            the notes to be added
+	 * @throws UnsupportedOperationException
+	 *             if the manager is a snapshot
+	 * @throws NullPointerException
+	 *             if the notes are null
+	 */
+	synchronized void addContactNotes(ContactImpl c, String note) {
+		changing();
+		if (note == null) {
+			throw new NullPointerException("Expected contact notes");
+		}
+		c.appendNotes(note);
+		if (journal != null) {
+			journal.contactNotes(c, note);
+		}
+	}
+
+	/**
+	 * Save all data to disk.
+	 *
+	 * This method must be executed when the program is closed and when/if the
+	 * user requests it.
+	 * 
+	 * The first time, all contacts and meetings are saved in a snapshot, in
+	 * the format of snapshotCodec, and an empty journal is started next to
+	 * it. From then on, changes are appended to the journal as they are made,
+	 * and this method only has to make sure they are on disk. When the
+	 * journal grows past compactionThreshold, it is folded into a new
+	 * snapshot.
+	 *
+	 * The data is written by the writer thread of flushAsync(), and this
+	 * method waits for it.
+	 *
+	 * @throws UncheckedIOException
+	 *             if the data could not be written
+	 */
+	public void flush() {
+		try {
+			flushAsync().join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw new UncheckedIOException((IOException)cause);
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Save all data to disk in the background, as flush() does.
+	 *
+	 * The data is written by a writer thread of the manager, from a snapshot
+	 * taken when the write starts, so changes can go on meanwhile. Requests
+	 * made while a write is waiting to start are merged into that write.
+	 *
+	 * @return a future completed when the data is on disk, or completed
+	 *         exceptionally with whatever stopped the write.
+	 * @throws UnsupportedOperationException
+	 *             if the manager is a snapshot
+	 */
+	public synchronized CompletableFuture<Void> flushAsync() {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Snapshots are read-only");
+		}
+		if (pendingFlush == null) {
+			pendingFlush = new CompletableFuture<Void>();
+			if (writer == null) {
+				ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+						IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+						daemonThreads("ContactManager writer"));
+				executor.allowCoreThreadTimeOut(true);
+				writer = executor;
+			}
+			writer.execute(this::writePending);
+		}
+		return pendingFlush;
+	}
+
+	/**
+	 * Carry out the waiting flush request, on the writer thread.
+	 */
+	private void writePending() {
+		CompletableFuture<Void> request;
+		synchronized (this) {
+			request = pendingFlush;
+			pendingFlush = null;
+		}
+		try {
+			write();
+			request.complete(null);
+		} catch (Throwable e) {
+			// whatever it is, the callers waiting for the write must hear of it
+			request.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Sync the journal, or write a new snapshot if there is no journal yet or
+	 * it is too large.
+	 *
+	 * The snapshot is written from snapshot() without holding the monitor.
+	 * Changes made meanwhile stay in the journal: the snapshot records the
+	 * number of its last change, and only the changes up to it are dropped
+	 * from the journal once it is written.
+	 *
+	 * The first journal is started with the snapshot, so that changes made
+	 * while the snapshot is written are recorded. If that snapshot can't be
+	 * written, the journal is dropped, since it is of no use without it, and
+	 * the next write starts over with a new snapshot.
+	 */
+	private void write() throws IOException {
+		Journal j;
+		ContactManagerImpl s;
+		long offset;
+		synchronized (this) {
+			j = journal;
+			if (j != null && j.size() <= compactionThreshold) {
+				s = null;
+				offset = 0;
+			} else {
+				s = snapshot();
+				if (j == null) {
+					// nothing to keep from before the snapshot
+					Journal started = new Journal(journalFileName());
+					started.start(s.getJournalSequence());
+					journal = started;
+				}
+				offset = j == null ? 0 : j.size();
+			}
+		}
+		if (s != null) {
+			try {
+				snapshotCodec.write(s);
+			} catch (IOException | RuntimeException | Error e) {
+				if (j == null) {
+					dropJournal(e);
+				}
+				throw e;
+			}
+			metrics.bytesWritten(new File(snapshotCodec.getFileName()).length());
+			if (j != null) {
+				j.dropBefore(s.getJournalSequence(), offset);
+			}
+			// the journal was started or rewritten, so all of it is new
+			journalWritten = 0;
+		}
+		long size = journal.size();
+		journal.sync();
+		metrics.bytesWritten(size - journalWritten);
+		journalWritten = size;
+	}
+
+	/**
+	 * Stop recording changes in the journal, after the snapshot it goes with
+	 * could not be written.
+	 *
+	 * @param cause the failure of the snapshot, to which a failure to close
+	 *            the journal is added.
+	 */
+	private synchronized void dropJournal(Throwable cause) {
+		Journal j = journal;
+		journal = null;
+		try {
+			j.close();
+		} catch (IOException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Returns the name of the journal file that goes with the snapshot file.
+	 *
+	 * @return the name of the journal file.
+	 */
+	private static String journalFileName() {
+		return snapshotCodec.getFileName() + ".journal";
+	}
+
+	/**
+	 * Read a ContactManager from disk.
+	 *
+	 * This method must be executed when the program starts.
+	 * 
+	 * The snapshot is read first, and then the changes in the journal are
+	 * applied to it. Contacts and meetings keep the ids they had when saved.
+	 * Meetings are read as they were saved, even future meetings whose date
+	 * has passed since. If there is no snapshot, the manager is empty; if the
+	 * snapshot or the journal can't be read, nothing is, rather than part of
+	 * the data that the next flush would then save over the rest.
+	 * 
+	 * @return a ContactManager
+	 * @throws UncheckedIOException
+	 *             if the snapshot or the journal can't be read
+	 */
+	public static ContactManager read() {
+		long start = System.nanoTime();
+		try {
+			return readFiles();
+		} finally {
+			metrics.called(ContactManagerMetrics.Operation.READ,
+					System.nanoTime() - start, -1);
+		}
+	}
+
+	/**
+	 * Read the snapshot and the journal, for read().
+	 *
+	 * @return a ContactManager
+	 * @throws UncheckedIOException
+	 *             if the snapshot or the journal can't be read
+	 */
+	private static ContactManagerImpl readFiles() {
+		ContactManagerImpl mgr = new ContactManagerImpl();
+		try {
+			snapshotCodec.read(mgr);
+			metrics.bytesRead(new File(snapshotCodec.getFileName()).length());
+		} catch (FileNotFoundException e) {
+			System.out.println(snapshotCodec.getFileName() + ": file not found");
+			return mgr;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			throw corrupt(snapshotCodec.getFileName(), e);
+		}
+		Journal j = new Journal(journalFileName());
+		try {
+			try {
+				j.resume(j.replay(mgr, mgr.snapshotSequence));
+				metrics.bytesRead(j.size());
+			} catch (FileNotFoundException e) {
+				j.start(mgr.snapshotSequence);
+			}
+			mgr.journal = j;
+			mgr.journalWritten = j.size();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			throw corrupt(journalFileName(), e);
+		}
+		return mgr;
+	}
+
+	/**
+	 * Returns the exception for a file whose data made the manager fail
+	 * while it was read, which the checks of the codecs let through.
+	 *
+	 * @param fileName the file read.
+	 * @param cause what the manager threw.
+	 * @return the exception to throw.
+	 */
+	private static UncheckedIOException corrupt(String fileName, RuntimeException cause) {
+		return new UncheckedIOException(new IOException(fileName + ": corrupt", cause));
+	}
+
+}
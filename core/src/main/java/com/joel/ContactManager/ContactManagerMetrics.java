@@ -0,0 +1,87 @@
+package com.joel.ContactManager;
+
+/**
+ * Receives measurements of a ContactManager: how long each call takes, how
+ * many items it returns, and how many bytes are saved and read.
+ *
+ * Calls are measured by an InstrumentedContactManager wrapped around the
+ * manager. Bytes are counted by ContactManagerImpl itself, for the metrics
+ * set as ContactManagerImpl.metrics. Implementations are called from any
+ * thread, and should be quick: RecordingMetrics keeps histograms, and NOOP
+ * does nothing.
+ */
+public interface ContactManagerMetrics {
+	/**
+	 * The methods of ContactManager, and ContactManagerImpl.read().
+	 */
+	enum Operation {
+		ADD_FUTURE_MEETING("addFutureMeeting"),
+		GET_PAST_MEETING("getPastMeeting"),
+		GET_FUTURE_MEETING("getFutureMeeting"),
+		GET_MEETING("getMeeting"),
+		GET_FUTURE_MEETING_LIST_OF_CONTACT("getFutureMeetingList(Contact)"),
+		GET_FUTURE_MEETING_LIST_OF_DAY("getFutureMeetingList(Calendar)"),
+		GET_PAST_MEETING_LIST("getPastMeetingList"),
+		ADD_NEW_PAST_MEETING("addNewPastMeeting"),
+		ADD_MEETING_NOTES("addMeetingNotes"),
+		ADD_NEW_CONTACT("addNewContact"),
+		GET_CONTACTS_BY_IDS("getContacts(int...)"),
+		GET_CONTACTS_BY_NAME("getContacts(String)"),
+		FLUSH("flush"),
+		READ("read");
+
+		private final String method;
+
+		Operation(String method) {
+			this.method = method;
+		}
+
+		/**
+		 * Returns the name of the method, with its parameter type if it is
+		 * overloaded.
+		 *
+		 * @return the name of the method.
+		 */
+		public String toString() {
+			return method;
+		}
+	}
+
+	/**
+	 * Metrics that record nothing, for managers that aren't measured.
+	 */
+	ContactManagerMetrics NOOP = new ContactManagerMetrics() {
+		public void called(Operation operation, long nanos, int results) {
+		}
+
+		public void bytesWritten(long bytes) {
+		}
+
+		public void bytesRead(long bytes) {
+		}
+	};
+
+	/**
+	 * Record a call.
+	 *
+	 * @param operation the method called.
+	 * @param nanos how long the call took, in nanoseconds.
+	 * @param results the number of contacts or meetings returned, or -1 if
+	 *            the method returns none or threw an exception.
+	 */
+	void called(Operation operation, long nanos, int results);
+
+	/**
+	 * Record bytes written to disk, to a snapshot or to the journal.
+	 *
+	 * @param bytes the number of bytes.
+	 */
+	void bytesWritten(long bytes);
+
+	/**
+	 * Record bytes read from disk, from a snapshot and its journal.
+	 *
+	 * @param bytes the number of bytes.
+	 */
+	void bytesRead(long bytes);
+}
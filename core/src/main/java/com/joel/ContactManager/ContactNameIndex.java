@@ -0,0 +1,160 @@
+package com.joel.ContactManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An index of contacts by name.
+ *
+ * Every substring of up to GRAM characters of every name is a key to the
+ * contacts whose name contains it. A search for a string of up to GRAM
+ * characters is a single lookup. Longer strings are looked up by the least
+ * common of their substrings of GRAM characters, and only the contacts found
+ * there are checked with String.contains.
+ *
+ * Names are also kept sorted, for searches by prefix.
+ *
+ * Contacts are added by one thread at a time, but searches can run while
+ * contacts are being added and see every contact added before they started.
+ */
+class ContactNameIndex {
+	/**
+	 * Length of the longest substrings used as keys.
+	 */
+	private static final int GRAM = 3;
+	private Map<String,Postings> grams;
+	private NavigableMap<String,Postings> names;
+
+	public ContactNameIndex() {
+		this.grams = new ConcurrentHashMap<String,Postings>();
+		this.names = new ConcurrentSkipListMap<String,Postings>();
+	}
+
+	/**
+	 * Add a contact to the index.
+	 *
+	 * Names can't change, so contacts need to be added only once.
+	 *
+	 * @param c the contact to add.
+	 */
+	public void add(Contact c) {
+		String name = c.getName();
+		Set<String> seen = new HashSet<String>();
+		for (int i = 0; i < name.length(); i++) {
+			for (int j = i + 1; j <= name.length() && j - i <= GRAM; j++) {
+				String gram = name.substring(i, j);
+				if (seen.add(gram)) {
+					addTo(grams, gram, c);
+				}
+			}
+		}
+		addTo(names, name, c);
+	}
+
+	/**
+	 * Returns the contacts whose name contains a string.
+	 *
+	 * @param s the string to search for, not empty.
+	 * @return the contacts whose name contains the string.
+	 */
+	public Set<Contact> containing(String s) {
+		Set<Contact> matches = new HashSet<Contact>();
+		if (s.length() <= GRAM) {
+			Postings found = grams.get(s);
+			if (found != null) {
+				found.addTo(matches);
+			}
+			return matches;
+		}
+		Contact[] candidates = null;
+		for (int i = 0; i + GRAM <= s.length(); i++) {
+			Postings found = grams.get(s.substring(i, i + GRAM));
+			if (found == null) {
+				return matches;
+			}
+			if (candidates == null || found.size < candidates.length) {
+				candidates = found.toArray();
+			}
+		}
+		for (Contact c: candidates) {
+			if (c.getName().contains(s)) {
+				matches.add(c);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns the contacts whose name starts with a string.
+	 *
+	 * @param prefix the string to search for.
+	 * @return the contacts whose name starts with the string.
+	 */
+	public Set<Contact> startingWith(String prefix) {
+		Set<Contact> matches = new HashSet<Contact>();
+		for (Map.Entry<String,Postings> e: names.tailMap(prefix, true).entrySet()) {
+			if (!e.getKey().startsWith(prefix)) {
+				break;
+			}
+			e.getValue().addTo(matches);
+		}
+		return matches;
+	}
+
+	/**
+	 * Add a contact to the postings under a key, creating them if needed.
+	 *
+	 * @param map the map of postings.
+	 * @param key the key.
+	 * @param c the contact to add.
+	 */
+	private static void addTo(Map<String,Postings> map, String key, Contact c) {
+		Postings list = map.get(key);
+		if (list == null) {
+			list = new Postings();
+			list.add(c);
+			map.put(key, list);
+		} else {
+			list.add(c);
+		}
+	}
+
+	/**
+	 * The contacts under one key, which can only grow.
+	 *
+	 * The array is replaced when full and the size is written last, so a
+	 * reader that reads the size first finds at least that many contacts.
+	 */
+	private static final class Postings {
+		private volatile Contact[] items = new Contact[1];
+		private volatile int size;
+
+		void add(Contact c) {
+			Contact[] a = items;
+			if (size == a.length) {
+				a = Arrays.copyOf(a, a.length * 2);
+				items = a;
+			}
+			a[size] = c;
+			size = size + 1;
+		}
+
+		Contact[] toArray() {
+			int n = size;
+			return Arrays.copyOf(items, n);
+		}
+
+		void addTo(Set<Contact> set) {
+			int n = size;
+			Contact[] a = items;
+			for (int i = 0; i < n; i++) {
+				set.add(a[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+
+/**
+ * Tells the manager the current date, which decides whether a meeting is
+ * in the past or in the future.
+ */
+interface CurrentDateProvider {
+	Calendar today();
+
+	/**
+	 * Returns the current date in milliseconds since the epoch.
+	 *
+	 * The manager calls this rather than today(), so providers that can
+	 * should answer without building a Calendar.
+	 *
+	 * @return the current date in milliseconds since the epoch.
+	 */
+	default long now() {
+		return today().getTimeInMillis();
+	}
+}
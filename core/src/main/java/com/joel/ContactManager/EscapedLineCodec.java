@@ -0,0 +1,77 @@
+package com.joel.ContactManager;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Reads and writes strings as single lines, with newlines turned into "\n"
+ * and backslashes turned into "\\".
+ *
+ * Both directions work in a single pass over the string, without building
+ * intermediate strings.
+ */
+final class EscapedLineCodec {
+	private static final char[] ESCAPED_NEWLINE = {'\\', 'n'};
+	private static final char[] ESCAPED_BACKSLASH = {'\\', '\\'};
+
+	private EscapedLineCodec() {
+	}
+
+	/**
+	 * Writes an escaped copy of the string, with newlines turned into "\n", 
+	 * backslashes turned into "\\" and an appended newline.
+	 *
+	 * @param w the stream to write to
+	 * @param s the string to escape
+	 */
+	public static void writeEscaped(Writer w, String s) throws IOException {
+		// runs of characters that need no escaping are written as they are
+		int start = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '\\' || c == '\n') {
+				w.write(s, start, i - start);
+				w.write(c == '\n' ? ESCAPED_NEWLINE : ESCAPED_BACKSLASH);
+				start = i + 1;
+			}
+		}
+		w.write(s, start, s.length() - start);
+		w.write('\n');
+	}
+
+	/**
+	 * Read an unescaped line from the reader, with "\n" turned into newlines, 
+	 * "\\" turned into backslashes and without the trailing newline.
+	 *
+	 * @param r the reader to read from
+	 * @return the unescaped string.
+	 * @throws EOFException
+	 *             if there are no more lines
+	 */
+	public static String readUnescaped(BufferedReader r) throws IOException {
+		String s = r.readLine();
+		if (s == null) {
+			throw new EOFException("Unexpected end of file");
+		}
+		int i = s.indexOf('\\');
+		if (i < 0) {
+			return s;
+		}
+		StringBuilder res = new StringBuilder(s.length());
+		res.append(s, 0, i);
+		for (; i < s.length(); i++) {
+			char c = s.charAt(i);
+			// a backslash ending the line has nothing to escape
+			if (c == '\\' && i + 1 < s.length()) {
+				i++;
+				c = s.charAt(i);
+				res.append(c == 'n' ? '\n' : c);
+			} else {
+				res.append(c);
+			}
+		}
+		return res.toString();
+	}
+}
@@ -0,0 +1,65 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+public class FutureMeetingImpl extends MeetingImpl implements FutureMeeting {
+	private static final AtomicReferenceFieldUpdater<FutureMeetingImpl,PastMeetingImpl> PAST =
+			AtomicReferenceFieldUpdater.newUpdater(FutureMeetingImpl.class,
+					PastMeetingImpl.class, "past");
+	/**
+	 * The past meeting this one becomes when its date comes, once asked for.
+	 */
+	private volatile PastMeetingImpl past;
+
+	public FutureMeetingImpl(Set<Contact> contacts, Calendar date) {
+		super(contacts, date);
+	}
+
+	/**
+	 * Initialize a FutureMeeting with a known id, such as one read from disk.
+	 * 
+	 * @param contacts Set of invited contacts
+	 * @param date meeting date
+	 * @param id the meeting id
+	 */
+	public FutureMeetingImpl(Set<Contact> contacts, Calendar date, int id) {
+		super(contacts, date, id);
+	}
+
+	/**
+	 * Initialize a FutureMeeting at a time in a time zone, with a known id.
+	 * 
+	 * @param contacts Set of invited contacts
+	 * @param time meeting date, in milliseconds since the epoch
+	 * @param zone time zone of the meeting date
+	 * @param id the meeting id
+	 */
+	FutureMeetingImpl(Set<Contact> contacts, long time, TimeZone zone, int id) {
+		super(contacts, time, zone, id);
+	}
+
+	/**
+	 * Returns the past meeting without notes that this meeting becomes when
+	 * its date comes, the same one on every call, so that it is the same
+	 * meeting before and after the manager moves it to the past meetings.
+	 *
+	 * @return the past meeting, with the same id, date and guests.
+	 */
+	PastMeetingImpl asPast() {
+		PastMeetingImpl p = past;
+		if (p == null) {
+			p = new PastMeetingImpl(this, "");
+			if (!PAST.compareAndSet(this, null, p)) {
+				p = past;
+			}
+		}
+		return p;
+	}
+
+	State state() {
+		return State.FUTURE;
+	}
+}
@@ -0,0 +1,17 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+/**
+ * A CurrentDateProvider reading the system clock.
+ */
+class GregorianCalendarCurrentDateProvider implements CurrentDateProvider {
+	public Calendar today() {
+		return new GregorianCalendar();
+	}
+
+	public long now() {
+		return System.currentTimeMillis();
+	}
+}
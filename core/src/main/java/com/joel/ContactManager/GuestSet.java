@@ -0,0 +1,220 @@
+package com.joel.ContactManager;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The guests of a meeting: an immutable set of contacts, kept in an array
+ * sorted by id.
+ *
+ * A meeting copies the set it is given into a GuestSet, so the caller can't
+ * change its guests afterwards, and the set returned by getContacts() can be
+ * shared. The array takes a reference per guest, against an entry object
+ * per guest in a HashSet. Since guest sets never change, a manager keeps one
+ * of each and has all the meetings with the same guests share it.
+ *
+ * Membership is tested on the ids of the guests, without reading the
+ * contacts: the ids are kept in a sorted int[], searched by bisection, or,
+ * for large meetings whose guests have ids close together, in a bitset from
+ * the smallest id, where testing an id takes a shift and a mask.
+ *
+ * Like HashSet, which ContactImpl doesn't override equals() for, the set
+ * holds contacts as the objects they are: another contact with the same id
+ * is not in it.
+ */
+final class GuestSet extends AbstractSet<Contact> {
+	private static final Comparator<Contact> BY_ID =
+			(Contact a, Contact b) -> Integer.compare(a.getId(), b.getId());
+	/**
+	 * Guests from which a bitset may be used instead of an int[].
+	 */
+	static final int BITSET_THRESHOLD = 64;
+	private final Contact[] members;
+	/**
+	 * The ids of the members, in order, or null if they are in a bitset.
+	 */
+	private final int[] ids;
+	/**
+	 * A bit for each id from the smallest one, set for the ids of members,
+	 * or null if they are in an int[].
+	 */
+	private final long[] bits;
+	/**
+	 * The number of members before each word of the bitset, to find where
+	 * a member is in the array.
+	 */
+	private final int[] ranks;
+	/**
+	 * The smallest id of the members, from which the bits are counted.
+	 */
+	private final int base;
+	/**
+	 * The hash code of the set, which is the sum of those of its members.
+	 */
+	private final int hash;
+
+	private GuestSet(Contact[] members) {
+		this.members = members;
+		int h = 0;
+		int[] sorted = new int[members.length];
+		boolean distinct = true;
+		for (int i = 0; i < members.length; i++) {
+			h += members[i].hashCode();
+			sorted[i] = members[i].getId();
+			distinct &= i == 0 || sorted[i] != sorted[i - 1];
+		}
+		this.hash = h;
+		this.base = sorted.length > 0 ? sorted[0] : 0;
+		long span = sorted.length > 0 ? (long) sorted[sorted.length - 1] - base + 1 : 0;
+		// a bitset is only used if it is smaller than the int[], and can't
+		// tell contacts with the same id apart
+		if (distinct && sorted.length >= BITSET_THRESHOLD && span < 32L * sorted.length) {
+			long[] b = new long[(int) ((span + 63) >>> 6)];
+			for (int id: sorted) {
+				b[(id - base) >>> 6] |= 1L << (id - base);
+			}
+			int[] r = new int[b.length];
+			for (int w = 1; w < b.length; w++) {
+				r[w] = r[w - 1] + Long.bitCount(b[w - 1]);
+			}
+			this.bits = b;
+			this.ranks = r;
+			this.ids = null;
+		} else {
+			this.bits = null;
+			this.ranks = null;
+			this.ids = sorted;
+		}
+	}
+
+	/**
+	 * Returns a GuestSet holding some contacts.
+	 *
+	 * @param contacts the contacts, none of them null.
+	 * @return the set itself if it is a GuestSet, otherwise a new one.
+	 */
+	static GuestSet of(Set<Contact> contacts) {
+		if (contacts instanceof GuestSet) {
+			return (GuestSet)contacts;
+		}
+		Contact[] members = contacts.toArray(new Contact[contacts.size()]);
+		Arrays.sort(members, BY_ID);
+		return new GuestSet(members);
+	}
+
+	public int size() {
+		return members.length;
+	}
+
+	public boolean contains(Object o) {
+		if (!(o instanceof Contact)) {
+			return false;
+		}
+		int id = ((Contact)o).getId();
+		int i = indexOf(id);
+		if (i < 0) {
+			return false;
+		}
+		if (members[i].equals(o)) {
+			return true;
+		}
+		if (ids == null) {
+			return false;
+		}
+		// different contacts may share an id outside a manager
+		for (int j = i + 1; j < ids.length && ids[j] == id; j++) {
+			if (members[j].equals(o)) {
+				return true;
+			}
+		}
+		for (int j = i - 1; j >= 0 && ids[j] == id; j--) {
+			if (members[j].equals(o)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether a member has an id.
+	 *
+	 * @param id the id.
+	 * @return whether there is a member with that id.
+	 */
+	boolean containsId(int id) {
+		return indexOf(id) >= 0;
+	}
+
+	/**
+	 * Returns the index of a member with an id.
+	 *
+	 * @param id the id.
+	 * @return the index of a member with that id, or -1 if there is none.
+	 */
+	private int indexOf(int id) {
+		if (bits == null) {
+			if (ids.length <= 8) {
+				// too few to be worth bisecting
+				for (int i = 0; i < ids.length; i++) {
+					if (ids[i] == id) {
+						return i;
+					}
+				}
+				return -1;
+			}
+			return Math.max(Arrays.binarySearch(ids, id), -1);
+		}
+		long offset = (long) id - base;
+		if (offset < 0 || offset >= (long) bits.length << 6) {
+			return -1;
+		}
+		int word = (int) (offset >>> 6);
+		long bit = 1L << offset;
+		if ((bits[word] & bit) == 0) {
+			return -1;
+		}
+		// count the members with smaller ids
+		return ranks[word] + Long.bitCount(bits[word] & (bit - 1));
+	}
+
+	/**
+	 * Returns the members, in order of id.
+	 *
+	 * @return an iterator over the members, which can't remove them.
+	 */
+	public Iterator<Contact> iterator() {
+		return new Iterator<Contact>() {
+			private int next = 0;
+
+			public boolean hasNext() {
+				return next < members.length;
+			}
+
+			public Contact next() {
+				if (next >= members.length) {
+					throw new NoSuchElementException();
+				}
+				return members[next++];
+			}
+		};
+	}
+
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (o instanceof GuestSet) {
+			GuestSet other = (GuestSet)o;
+			return hash == other.hash && Arrays.equals(members, other.members);
+		}
+		return super.equals(o);
+	}
+
+	public int hashCode() {
+		return hash;
+	}
+}
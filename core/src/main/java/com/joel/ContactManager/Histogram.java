@@ -0,0 +1,121 @@
+package com.joel.ContactManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, such as latencies in nanoseconds,
+ * with a relative precision of about 3% over the whole range of long.
+ *
+ * As in HdrHistogram, values below 64 have a bucket each, and each power of
+ * two above that is split into 32 buckets of equal width, so the histogram
+ * takes a fixed 1888 counters. Recording a value is a few shifts and an
+ * atomic increment, and can be done by any number of threads at once.
+ * Percentiles are read from the counters as they are, so while values are
+ * being recorded they are only about right.
+ */
+public class Histogram {
+	private static final int SUB_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Record a value.
+	 *
+	 * @param value the value, taken as 0 if negative.
+	 */
+	public void record(long value) {
+		long v = Math.max(value, 0);
+		counts.incrementAndGet(bucket(v));
+		count.increment();
+		sum.add(v);
+		max.accumulate(v);
+	}
+
+	/**
+	 * Returns the bucket of a value.
+	 *
+	 * @param value the value, not negative.
+	 * @return the index of its bucket.
+	 */
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int msb = 63 - Long.numberOfLeadingZeros(value);
+		int shift = msb - SUB_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * Returns the smallest value in a bucket.
+	 *
+	 * @param bucket the index of the bucket.
+	 * @return the smallest value that goes in it.
+	 */
+	static long lowestValue(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+	}
+
+	/**
+	 * Returns the number of values recorded.
+	 *
+	 * @return the number of values.
+	 */
+	public long count() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean of the values recorded.
+	 *
+	 * @return the mean, or 0 if there are none.
+	 */
+	public double mean() {
+		long n = count.sum();
+		return n == 0 ? 0 : sum.sum() / (double) n;
+	}
+
+	/**
+	 * Returns the largest value recorded.
+	 *
+	 * @return the largest value, or 0 if there are none.
+	 */
+	public long max() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the value that a percentage of the values recorded are at or
+	 * below.
+	 *
+	 * @param percentile the percentage, from 0 to 100.
+	 * @return the largest value of the bucket holding that value, but no
+	 *         more than the largest value recorded, or 0 if there are none.
+	 */
+	public long valueAtPercentile(double percentile) {
+		long n = count.sum();
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += counts.get(b);
+			if (seen >= rank) {
+				long highest = b + 1 < BUCKETS ? lowestValue(b + 1) - 1 : Long.MAX_VALUE;
+				return Math.min(highest, max());
+			}
+		}
+		return max();
+	}
+}
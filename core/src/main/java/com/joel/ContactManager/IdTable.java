@@ -0,0 +1,274 @@
+package com.joel.ContactManager;
+
+import java.util.AbstractCollection;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A map from ids to values, stored in arrays indexed by id.
+ *
+ * Ids of contacts and meetings are allocated in sequence from 1, so the
+ * arrays are dense, and looking up an id is two bounds checks and two array
+ * reads: no boxing, no hashing and no entry objects. The values are kept in
+ * chunks of 256 ids, which are allocated as ids are put, under a directory
+ * that grows by doubling to fit the largest id put.
+ *
+ * Copying a table copies only the directory: the two tables share their
+ * chunks, and each copies a chunk the first time it changes it afterwards.
+ * So the copy of a large table costs a fraction of its size, and the
+ * changes that follow copy only the chunks they touch.
+ *
+ * Values are put and removed by one thread at a time, but can be read by
+ * any number of threads meanwhile: slots are read and written with volatile
+ * semantics, and a grown directory or a copied chunk is filled before it is
+ * published.
+ *
+ * @param <V> the type of the values.
+ */
+class IdTable<V> {
+	/**
+	 * The largest id accepted from a file. Ids are allocated in sequence from
+	 * 1, so larger ones only come from corrupt files, and would make the
+	 * table as large as the id.
+	 */
+	static final int MAX_ID = (1 << 26) - 1;
+	private static final int CHUNK_BITS = 8;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private volatile AtomicReferenceArray<AtomicReferenceArray<V>> chunks;
+	/**
+	 * The chunks this table made since it was last copied, which it can
+	 * change in place. Used by the thread changing the table only.
+	 */
+	private final BitSet owned = new BitSet();
+	private volatile int size;
+
+	/**
+	 * Create an empty table.
+	 *
+	 * @param capacity the largest id expected, plus one.
+	 */
+	public IdTable(int capacity) {
+		this.chunks = new AtomicReferenceArray<AtomicReferenceArray<V>>(
+				Math.max(1, (capacity + CHUNK_MASK) >>> CHUNK_BITS));
+	}
+
+	/**
+	 * Create a table holding the same values as another, sharing its chunks.
+	 *
+	 * @param other the table to copy, which must not change meanwhile.
+	 */
+	public IdTable(IdTable<V> other) {
+		AtomicReferenceArray<AtomicReferenceArray<V>> from = other.chunks;
+		AtomicReferenceArray<AtomicReferenceArray<V>> to =
+				new AtomicReferenceArray<AtomicReferenceArray<V>>(from.length());
+		for (int i = 0; i < from.length(); i++) {
+			to.lazySet(i, from.get(i));
+		}
+		this.chunks = to;
+		this.size = other.size;
+		// the chunks are shared from now on
+		other.owned.clear();
+	}
+
+	/**
+	 * Returns whether an id can have been allocated to a contact or meeting,
+	 * to check the ids read from a file.
+	 *
+	 * @param id the id.
+	 * @return whether the id is between 1 and MAX_ID.
+	 */
+	static boolean isValidId(int id) {
+		return id > 0 && id <= MAX_ID;
+	}
+
+	/**
+	 * Returns the value with an id.
+	 *
+	 * @param id the id.
+	 * @return the value, or null if there is none.
+	 */
+	public V get(int id) {
+		if (id < 0) {
+			return null;
+		}
+		AtomicReferenceArray<AtomicReferenceArray<V>> c = chunks;
+		int index = id >>> CHUNK_BITS;
+		if (index >= c.length()) {
+			return null;
+		}
+		AtomicReferenceArray<V> chunk = c.get(index);
+		return chunk == null ? null : chunk.get(id & CHUNK_MASK);
+	}
+
+	/**
+	 * Returns whether there is a value with an id.
+	 *
+	 * @param id the id.
+	 * @return whether there is a value with that id.
+	 */
+	public boolean containsKey(int id) {
+		return get(id) != null;
+	}
+
+	/**
+	 * Put a value under an id, replacing the one there was.
+	 *
+	 * @param id the id, not negative.
+	 * @param value the value, not null.
+	 * @return the value replaced, or null if there was none.
+	 */
+	public V put(int id, V value) {
+		if (id < 0) {
+			throw new IllegalArgumentException("Negative id " + id);
+		}
+		V old = writable(id >>> CHUNK_BITS).getAndSet(id & CHUNK_MASK, value);
+		if (old == null) {
+			size = size + 1;
+		}
+		return old;
+	}
+
+	/**
+	 * Remove the value with an id.
+	 *
+	 * @param id the id.
+	 * @return the value removed, or null if there was none.
+	 */
+	public V remove(int id) {
+		if (get(id) == null) {
+			return null;
+		}
+		V old = writable(id >>> CHUNK_BITS).getAndSet(id & CHUNK_MASK, null);
+		size = size - 1;
+		return old;
+	}
+
+	/**
+	 * Returns a chunk that this table can change in place, making it or
+	 * copying it if needed.
+	 *
+	 * @param index the index of the chunk in the directory.
+	 * @return the chunk.
+	 */
+	private AtomicReferenceArray<V> writable(int index) {
+		AtomicReferenceArray<AtomicReferenceArray<V>> c = chunks;
+		if (index >= c.length()) {
+			c = grow(c, index);
+		}
+		AtomicReferenceArray<V> chunk = c.get(index);
+		if (chunk != null && owned.get(index)) {
+			return chunk;
+		}
+		AtomicReferenceArray<V> made = new AtomicReferenceArray<V>(CHUNK_SIZE);
+		if (chunk != null) {
+			for (int i = 0; i < CHUNK_SIZE; i++) {
+				made.lazySet(i, chunk.get(i));
+			}
+		}
+		c.set(index, made);
+		owned.set(index);
+		return made;
+	}
+
+	/**
+	 * Replace the directory by one large enough for a chunk.
+	 *
+	 * @param c the current directory.
+	 * @param index the index of the chunk to make room for.
+	 * @return the new directory.
+	 */
+	private AtomicReferenceArray<AtomicReferenceArray<V>> grow(
+			AtomicReferenceArray<AtomicReferenceArray<V>> c, int index) {
+		int length = c.length();
+		while (length <= index) {
+			length = length * 2;
+		}
+		AtomicReferenceArray<AtomicReferenceArray<V>> grown =
+				new AtomicReferenceArray<AtomicReferenceArray<V>>(length);
+		for (int i = 0; i < c.length(); i++) {
+			grown.lazySet(i, c.get(i));
+		}
+		chunks = grown;
+		return grown;
+	}
+
+	/**
+	 * Returns the number of values.
+	 *
+	 * @return the number of values.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns whether there are no values.
+	 *
+	 * @return whether there are no values.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the values, in order of id.
+	 *
+	 * The collection is a view of the table, which can't be modified
+	 * through it.
+	 *
+	 * @return the values.
+	 */
+	public Collection<V> values() {
+		return new AbstractCollection<V>() {
+			public Iterator<V> iterator() {
+				final AtomicReferenceArray<AtomicReferenceArray<V>> c = chunks;
+				return new Iterator<V>() {
+					private long index = -1;
+					private V nextValue = advance();
+
+					/**
+					 * Find the next value, which is kept in case it is
+					 * removed before next() is called.
+					 */
+					private V advance() {
+						while (++index >>> CHUNK_BITS < c.length()) {
+							AtomicReferenceArray<V> chunk =
+									c.get((int)(index >>> CHUNK_BITS));
+							if (chunk == null) {
+								// skip to the end of the missing chunk
+								index |= CHUNK_MASK;
+								continue;
+							}
+							V v = chunk.get((int)(index & CHUNK_MASK));
+							if (v != null) {
+								return v;
+							}
+						}
+						return null;
+					}
+
+					public boolean hasNext() {
+						return nextValue != null;
+					}
+
+					public V next() {
+						if (nextValue == null) {
+							throw new NoSuchElementException();
+						}
+						V v = nextValue;
+						nextValue = advance();
+						return v;
+					}
+				};
+			}
+
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
@@ -0,0 +1,246 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Set;
+
+import com.joel.ContactManager.ContactManagerMetrics.Operation;
+
+/**
+ * A ContactManager that passes each call on to another one, and tells
+ * metrics how long it took and how many contacts or meetings it returned.
+ *
+ * With ContactManagerMetrics.NOOP, calls are passed on without reading the
+ * clock, so a manager can always be wrapped and measured only when needed.
+ * Calls that throw are measured too, as returning nothing.
+ *
+ *     RecordingMetrics metrics = new RecordingMetrics();
+ *     ContactManagerImpl.metrics = metrics; // to count bytes too
+ *     ContactManager mgr = new InstrumentedContactManager(
+ *             ContactManagerImpl.read(), metrics);
+ */
+public class InstrumentedContactManager implements ContactManager {
+	private final ContactManager delegate;
+	private final ContactManagerMetrics metrics;
+	private final boolean enabled;
+
+	/**
+	 * Wrap a manager.
+	 *
+	 * @param delegate the manager to pass the calls on to.
+	 * @param metrics where to record the calls.
+	 */
+	public InstrumentedContactManager(ContactManager delegate,
+			ContactManagerMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+		this.enabled = metrics != ContactManagerMetrics.NOOP;
+	}
+
+	/**
+	 * Returns the manager the calls are passed on to.
+	 *
+	 * @return the wrapped manager.
+	 */
+	public ContactManager getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Record a call that returned a number of items, or none if -1.
+	 */
+	private void record(Operation op, long start, int results) {
+		metrics.called(op, System.nanoTime() - start, results);
+	}
+
+	private static int sizeOf(Object meeting) {
+		return meeting == null ? 0 : 1;
+	}
+
+	public int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+		if (!enabled) {
+			return delegate.addFutureMeeting(contacts, date);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			int id = delegate.addFutureMeeting(contacts, date);
+			results = 1;
+			return id;
+		} finally {
+			record(Operation.ADD_FUTURE_MEETING, start, results);
+		}
+	}
+
+	public PastMeeting getPastMeeting(int id) {
+		if (!enabled) {
+			return delegate.getPastMeeting(id);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			PastMeeting m = delegate.getPastMeeting(id);
+			results = sizeOf(m);
+			return m;
+		} finally {
+			record(Operation.GET_PAST_MEETING, start, results);
+		}
+	}
+
+	public FutureMeeting getFutureMeeting(int id) {
+		if (!enabled) {
+			return delegate.getFutureMeeting(id);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			FutureMeeting m = delegate.getFutureMeeting(id);
+			results = sizeOf(m);
+			return m;
+		} finally {
+			record(Operation.GET_FUTURE_MEETING, start, results);
+		}
+	}
+
+	public Meeting getMeeting(int id) {
+		if (!enabled) {
+			return delegate.getMeeting(id);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			Meeting m = delegate.getMeeting(id);
+			results = sizeOf(m);
+			return m;
+		} finally {
+			record(Operation.GET_MEETING, start, results);
+		}
+	}
+
+	public List<Meeting> getFutureMeetingList(Contact contact) {
+		if (!enabled) {
+			return delegate.getFutureMeetingList(contact);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			List<Meeting> meetings = delegate.getFutureMeetingList(contact);
+			results = meetings.size();
+			return meetings;
+		} finally {
+			record(Operation.GET_FUTURE_MEETING_LIST_OF_CONTACT, start, results);
+		}
+	}
+
+	public List<Meeting> getFutureMeetingList(Calendar date) {
+		if (!enabled) {
+			return delegate.getFutureMeetingList(date);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			List<Meeting> meetings = delegate.getFutureMeetingList(date);
+			results = meetings.size();
+			return meetings;
+		} finally {
+			record(Operation.GET_FUTURE_MEETING_LIST_OF_DAY, start, results);
+		}
+	}
+
+	public List<PastMeeting> getPastMeetingList(Contact contact) {
+		if (!enabled) {
+			return delegate.getPastMeetingList(contact);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			List<PastMeeting> meetings = delegate.getPastMeetingList(contact);
+			results = meetings.size();
+			return meetings;
+		} finally {
+			record(Operation.GET_PAST_MEETING_LIST, start, results);
+		}
+	}
+
+	public void addNewPastMeeting(Set<Contact> contacts, Calendar date, String text) {
+		if (!enabled) {
+			delegate.addNewPastMeeting(contacts, date, text);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			delegate.addNewPastMeeting(contacts, date, text);
+		} finally {
+			record(Operation.ADD_NEW_PAST_MEETING, start, -1);
+		}
+	}
+
+	public void addMeetingNotes(int id, String text) {
+		if (!enabled) {
+			delegate.addMeetingNotes(id, text);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			delegate.addMeetingNotes(id, text);
+		} finally {
+			record(Operation.ADD_MEETING_NOTES, start, -1);
+		}
+	}
+
+	public void addNewContact(String name, String notes) {
+		if (!enabled) {
+			delegate.addNewContact(name, notes);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			delegate.addNewContact(name, notes);
+		} finally {
+			record(Operation.ADD_NEW_CONTACT, start, -1);
+		}
+	}
+
+	public Set<Contact> getContacts(int... ids) {
+		if (!enabled) {
+			return delegate.getContacts(ids);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			Set<Contact> contacts = delegate.getContacts(ids);
+			results = contacts.size();
+			return contacts;
+		} finally {
+			record(Operation.GET_CONTACTS_BY_IDS, start, results);
+		}
+	}
+
+	public Set<Contact> getContacts(String name) {
+		if (!enabled) {
+			return delegate.getContacts(name);
+		}
+		long start = System.nanoTime();
+		int results = -1;
+		try {
+			Set<Contact> contacts = delegate.getContacts(name);
+			results = contacts.size();
+			return contacts;
+		} finally {
+			record(Operation.GET_CONTACTS_BY_NAME, start, results);
+		}
+	}
+
+	public void flush() {
+		if (!enabled) {
+			delegate.flush();
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			delegate.flush();
+		} finally {
+			record(Operation.FLUSH, start, -1);
+		}
+	}
+}
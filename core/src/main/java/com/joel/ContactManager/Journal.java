@@ -0,0 +1,438 @@
+package com.joel.ContactManager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * An append-only log of the changes made to a ContactManagerImpl since its
+ * last snapshot.
+ *
+ * The file starts with a magic number and the sequence number of the first
+ * change it holds, minus one. Each change is then a tag byte followed by its
+ * data, in the encoding of BinarySnapshotCodec. Changes are numbered
+ * consecutively, and snapshots record the number of the last change they
+ * include, so changes already folded into a snapshot are skipped on replay
+ * even if the journal could not be emptied after writing the snapshot.
+ *
+ * Changes are written to a buffer, and only reach the disk on sync().
+ * Errors while writing a change are kept and thrown by the next sync(), so
+ * that changing the data never fails because of the disk. The methods are
+ * synchronized, so the journal can be synced while changes are written.
+ */
+class Journal {
+	/**
+	 * First bytes of the journal file, identifying its format: "CMJ2".
+	 */
+	private static final int MAGIC = 0x434d4a32;
+	private static final byte NEW_CONTACT = 1;
+	private static final byte CONTACT_NOTES = 2;
+	private static final byte FUTURE_MEETING = 3;
+	private static final byte PAST_MEETING = 4;
+	private static final byte MEETING_NOTES = 5;
+	private String fileName;
+	private FileOutputStream file;
+	private DataOutputStream out;
+	/**
+	 * Size of the file when it was opened.
+	 */
+	private long base;
+	/**
+	 * Number of the last change written.
+	 */
+	private long sequence;
+	/**
+	 * First error while writing a change since the last sync().
+	 */
+	private IOException failure;
+
+	/**
+	 * Create a journal that is not open yet.
+	 *
+	 * @param fileName the journal file.
+	 */
+	public Journal(String fileName) {
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Returns the name of the journal file.
+	 *
+	 * @return the name of the journal file.
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Returns the number of the last change written.
+	 *
+	 * @return the number of the last change written.
+	 */
+	public synchronized long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Returns the size of the journal file, including unsynced changes.
+	 *
+	 * @return the size of the journal file in bytes.
+	 */
+	public synchronized long size() {
+		return out == null ? 0 : base + out.size();
+	}
+
+	/**
+	 * Empty the journal file, or create it, after a snapshot.
+	 *
+	 * @param sequence the number of the last change in the snapshot.
+	 */
+	public synchronized void start(long sequence) throws IOException {
+		close();
+		open(false);
+		out.writeInt(MAGIC);
+		out.writeLong(sequence);
+		this.sequence = sequence;
+		sync();
+	}
+
+	/**
+	 * Drop the changes folded into a snapshot, keeping those made while the
+	 * snapshot was written.
+	 *
+	 * The changes kept are copied to a new file, which then replaces the
+	 * journal file, so a crash leaves either the old or the new journal.
+	 *
+	 * @param sequence the number of the last change in the snapshot.
+	 * @param offset the size of the journal when the snapshot was taken.
+	 */
+	public synchronized void dropBefore(long sequence, long offset)
+			throws IOException {
+		sync();
+		Path path = Paths.get(fileName);
+		Path tmp = Paths.get(fileName + ".tmp");
+		try (FileChannel src = FileChannel.open(path, StandardOpenOption.READ);
+				FileChannel dst = FileChannel.open(tmp, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING,
+						StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(12);
+			header.putInt(MAGIC).putLong(sequence).flip();
+			dst.write(header);
+			long end = src.size();
+			for (long pos = offset; pos < end; ) {
+				pos += src.transferTo(pos, end - pos, dst);
+			}
+			dst.force(true);
+		}
+		close();
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		open(true);
+	}
+
+	/**
+	 * Append to the existing journal file after replaying it.
+	 *
+	 * @param sequence the number of the last change in the file.
+	 */
+	public synchronized void resume(long sequence) throws IOException {
+		close();
+		open(true);
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Open the journal file for writing.
+	 *
+	 * @param append whether to keep the current contents of the file.
+	 */
+	private void open(boolean append) throws IOException {
+		base = append ? new File(fileName).length() : 0;
+		file = new FileOutputStream(fileName, append);
+		out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+		failure = null;
+	}
+
+	/**
+	 * Write all changes to the disk.
+	 *
+	 * @throws IOException
+	 *             if any change could not be written since the last sync
+	 */
+	public synchronized void sync() throws IOException {
+		if (failure != null) {
+			IOException e = failure;
+			failure = null;
+			throw e;
+		}
+		out.flush();
+		file.getFD().sync();
+	}
+
+	/**
+	 * Close the journal file, without syncing it.
+	 */
+	public synchronized void close() throws IOException {
+		if (out != null) {
+			out.close();
+			out = null;
+			file = null;
+		}
+	}
+
+	/**
+	 * Record a new contact.
+	 *
+	 * @param c the new contact.
+	 */
+	public synchronized void newContact(Contact c) {
+		try {
+			out.writeByte(NEW_CONTACT);
+			BinarySnapshotCodec.writeVarint(out, c.getId());
+			BinarySnapshotCodec.writeString(out, c.getName());
+			BinarySnapshotCodec.writeString(out, c.getNotes());
+			sequence++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Record notes added to a contact.
+	 *
+	 * @param c the contact.
+	 * @param note the notes added.
+	 */
+	public synchronized void contactNotes(Contact c, String note) {
+		try {
+			out.writeByte(CONTACT_NOTES);
+			BinarySnapshotCodec.writeVarint(out, c.getId());
+			BinarySnapshotCodec.writeString(out, note);
+			sequence++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Record a new future meeting.
+	 *
+	 * @param m the new meeting.
+	 */
+	public synchronized void futureMeeting(FutureMeeting m) {
+		try {
+			out.writeByte(FUTURE_MEETING);
+			writeMeeting(m);
+			sequence++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Record a new past meeting.
+	 *
+	 * @param m the new meeting.
+	 */
+	public synchronized void pastMeeting(PastMeeting m) {
+		try {
+			out.writeByte(PAST_MEETING);
+			writeMeeting(m);
+			BinarySnapshotCodec.writeString(out, m.getNotes());
+			sequence++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Record notes added to a meeting.
+	 *
+	 * @param id the id of the meeting.
+	 * @param text the notes added.
+	 */
+	public synchronized void meetingNotes(int id, String text) {
+		try {
+			out.writeByte(MEETING_NOTES);
+			BinarySnapshotCodec.writeVarint(out, id);
+			BinarySnapshotCodec.writeString(out, text);
+			sequence++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Write the id, date and guest ids of a meeting.
+	 *
+	 * @param m the meeting to write.
+	 */
+	private void writeMeeting(Meeting m) throws IOException {
+		BinarySnapshotCodec.writeVarint(out, m.getId());
+		BinarySnapshotCodec.writeDate(out, m);
+		BinarySnapshotCodec.writeVarint(out, m.getContacts().size());
+		for (Contact c: m.getContacts()) {
+			BinarySnapshotCodec.writeVarint(out, c.getId());
+		}
+	}
+
+	/**
+	 * Keep the first error, to be thrown by the next sync().
+	 *
+	 * @param e the error.
+	 */
+	private void fail(IOException e) {
+		if (failure == null) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * Apply the changes in the journal file that are not in a snapshot to
+	 * the manager the snapshot was read into.
+	 *
+	 * A change cut short at the end of the file, as left by a crash while
+	 * writing it, is dropped from the file.
+	 *
+	 * @param mgr the manager to apply the changes to.
+	 * @param snapshotSequence the number of the last change in the snapshot.
+	 * @return the number of the last change in the file.
+	 * @throws FileNotFoundException
+	 *             if there is no journal file
+	 * @throws IOException
+	 *             if the journal does not follow the snapshot
+	 */
+	public long replay(ContactManagerImpl mgr, long snapshotSequence)
+			throws IOException {
+		if (!new File(fileName).exists()) {
+			throw new FileNotFoundException(fileName);
+		}
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(fileName)));
+		long sequence;
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new IOException(fileName + ": unknown format");
+			}
+			sequence = in.getLong();
+		} catch (BufferUnderflowException e) {
+			throw new IOException(fileName + ": truncated header", e);
+		}
+		if (sequence > snapshotSequence) {
+			throw new IOException(fileName + ": changes " + snapshotSequence
+					+ " to " + sequence + " missing");
+		}
+		byte[] buf = new byte[256];
+		int end = in.position();
+		try {
+			while (in.hasRemaining()) {
+				byte tag = in.get();
+				sequence++;
+				apply(mgr, tag, in, buf, sequence <= snapshotSequence);
+				end = in.position();
+			}
+		} catch (BufferUnderflowException e) {
+			sequence--;
+			RandomAccessFile f = new RandomAccessFile(fileName, "rw");
+			f.setLength(end);
+			f.close();
+		}
+		return sequence;
+	}
+
+	/**
+	 * Read a change and apply it to a manager.
+	 *
+	 * @param mgr the manager to apply the change to.
+	 * @param tag the kind of change.
+	 * @param in the data of the change.
+	 * @param buf a buffer for reading strings.
+	 * @param skip whether to read the change without applying it.
+	 */
+	private void apply(ContactManagerImpl mgr, byte tag, ByteBuffer in, byte[] buf,
+			boolean skip) throws IOException {
+		int id = BinarySnapshotCodec.readId(in);
+		switch (tag) {
+		case NEW_CONTACT: {
+			String name = BinarySnapshotCodec.readString(in, buf);
+			String notes = BinarySnapshotCodec.readString(in, buf);
+			if (!skip) {
+				mgr.insertContact(new ContactImpl(name, notes, id));
+			}
+			break;
+		}
+		case CONTACT_NOTES: {
+			String note = BinarySnapshotCodec.readString(in, buf);
+			if (!skip) {
+				contact(mgr, id).appendNotes(note);
+			}
+			break;
+		}
+		case FUTURE_MEETING:
+		case PAST_MEETING: {
+			long time = BinarySnapshotCodec.readZigZag(in);
+			TimeZone zone = BinarySnapshotCodec.readZone(in, buf);
+			int count = BinarySnapshotCodec.readCount(in);
+			int[] guestIds = new int[count];
+			for (int i = 0; i < count; i++) {
+				guestIds[i] = BinarySnapshotCodec.readId(in);
+			}
+			String notes = tag == PAST_MEETING
+					? BinarySnapshotCodec.readString(in, buf) : null;
+			if (skip) {
+				break;
+			}
+			Set<Contact> guests = new HashSet<Contact>(count * 4 / 3 + 1);
+			for (int guestId: guestIds) {
+				guests.add(contact(mgr, guestId));
+			}
+			if (tag == PAST_MEETING) {
+				mgr.insertPastMeeting(new PastMeetingImpl(guests, time, zone, notes, id));
+			} else {
+				mgr.insertFutureMeeting(new FutureMeetingImpl(guests, time, zone, id));
+			}
+			break;
+		}
+		case MEETING_NOTES: {
+			String text = BinarySnapshotCodec.readString(in, buf);
+			if (!skip) {
+				mgr.applyMeetingNotes(id, text);
+			}
+			break;
+		}
+		default:
+			throw new IOException(fileName + ": unknown change " + tag);
+		}
+	}
+
+	/**
+	 * Returns the contact with an id.
+	 *
+	 * @param mgr the manager the contact belongs to.
+	 * @param id the id of the contact.
+	 * @return the contact.
+	 * @throws IOException
+	 *             if there is no contact with that id
+	 */
+	private ContactImpl contact(ContactManagerImpl mgr, int id) throws IOException {
+		ContactImpl c = mgr.getContact(id);
+		if (c == null) {
+			throw new IOException(fileName + ": unknown contact " + id);
+		}
+		return c;
+	}
+}
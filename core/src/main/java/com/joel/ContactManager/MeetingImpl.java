@@ -0,0 +1,231 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A class to represent meetings
+ *
+ * Meetings have unique IDs, scheduled date and a list of participating contacts
+ *
+ * The date is kept as milliseconds since the epoch, its day as days since
+ * 1970-01-01 and its time zone, so that meetings can be sorted and compared
+ * without a Calendar. A Calendar is only built by getDate().
+ *
+ * The guests are copied into a GuestSet, which can't be changed by the
+ * caller that gave them, nor by the callers of getContacts().
+ */
+public abstract class MeetingImpl implements Meeting {
+	protected Set<Contact> contacts;
+	protected final long time;
+	protected final long day;
+	protected final TimeZone zone;
+	protected int id;
+	/**
+	 * The manager generation when the meeting was put in the manager, which
+	 * tells whether a snapshot may share it. See ContactManagerImpl.snapshot().
+	 */
+	int generation;
+	/**
+	 * Next Id to use
+	 */
+	private static final AtomicInteger nextId = new AtomicInteger(1);
+	/**
+	 * One instance of each time zone used by meetings, by id.
+	 */
+	private static final Map<String,TimeZone> zones =
+			new ConcurrentHashMap<String,TimeZone>();
+
+	/**
+	 * Initialize Meeting from raw data, including ID
+	 * 
+	 * IDs allocated afterwards will be greater than this one.
+	 * 
+	 * @param contacts
+	 *            a list of participants
+	 * @param time
+	 *            the meeting date, in milliseconds since the epoch
+	 * @param zone
+	 *            the time zone of the meeting date
+	 * @param day
+	 *            the day of the meeting date in its time zone, in days since
+	 *            1970-01-01
+	 * @param id
+	 *            the meeting id
+	 */
+	MeetingImpl(Set<Contact> contacts, long time, TimeZone zone, long day, int id) {
+		this.contacts = GuestSet.of(contacts);
+		this.time = time;
+		this.zone = shared(zone);
+		this.day = day;
+		this.id = id;
+		nextId.accumulateAndGet(id + 1, Math::max);
+	}
+
+	/**
+	 * Initialize Meeting from raw data, including ID, such as read from disk.
+	 * 
+	 * @param contacts
+	 *            a list of participants
+	 * @param time
+	 *            the meeting date, in milliseconds since the epoch
+	 * @param zone
+	 *            the time zone of the meeting date
+	 * @param id
+	 *            the meeting id
+	 */
+	MeetingImpl(Set<Contact> contacts, long time, TimeZone zone, int id) {
+		this(contacts, time, zone,
+				Math.floorDiv(time + zone.getOffset(time), 24 * 60 * 60 * 1000L), id);
+	}
+
+	/**
+	 * Initialize Meeting from raw data, including ID
+	 * 
+	 * IDs allocated afterwards will be greater than this one.
+	 * 
+	 * @param contacts
+	 *            a list of participants
+	 * @param date
+	 *            the meeting date
+	 * @param id
+	 *            the meeting id
+	 */
+	protected MeetingImpl(Set<Contact> contacts, Calendar date, int id) {
+		this(contacts, date.getTimeInMillis(), date.getTimeZone(),
+				ContactManagerImpl.epochDay(date), id);
+	}
+
+	/**
+	 * Initialize a Meeeting from raw data, allocating a new id.
+	 * 
+	 * @param contacts
+	 *            a list of participants
+	 * @param date
+	 *            the meeting date
+	 */
+	public MeetingImpl(Set<Contact> contacts, Calendar date) {
+		this(contacts, date, nextId.getAndIncrement());
+	}
+	
+	/**
+	 * Initialize a new Meeting by copying another, id and all.
+	 * 
+	 * @param m the meeting to copy.
+	 */
+	public MeetingImpl(Meeting m) {
+		this(m.getContacts(), ContactManagerImpl.timeOf(m), zoneOf(m),
+				ContactManagerImpl.dayOf(m), m.getId());
+	}
+
+	/**
+	 * Returns the time zone of a meeting's date.
+	 *
+	 * @param m the meeting.
+	 * @return the time zone of its date.
+	 */
+	static TimeZone zoneOf(Meeting m) {
+		return m instanceof MeetingImpl ? ((MeetingImpl)m).zone
+				: m.getDate().getTimeZone();
+	}
+
+	/**
+	 * Returns the time zone with an id, as shared by all meetings.
+	 *
+	 * @param id the id of the time zone, such as read from disk.
+	 * @return the time zone, or GMT if the id is unknown.
+	 */
+	static TimeZone timeZone(String id) {
+		TimeZone known = zones.get(id);
+		return known != null ? known : shared(TimeZone.getTimeZone(id));
+	}
+
+	/**
+	 * Returns the instance of a time zone shared by all meetings, since
+	 * every Calendar has its own copy of its time zone.
+	 *
+	 * @param zone the time zone.
+	 * @return an equal time zone.
+	 */
+	private static TimeZone shared(TimeZone zone) {
+		TimeZone known = zones.putIfAbsent(zone.getID(), zone);
+		return known != null && known.equals(zone) ? known : zone;
+	}
+
+	/**
+	 * Where a meeting stands: still to be held, or held, with or without
+	 * notes.
+	 */
+	enum State {
+		FUTURE, PAST_WITHOUT_NOTES, PAST_WITH_NOTES
+	}
+
+	/**
+	 * Returns where the meeting stands.
+	 *
+	 * @return the state of the meeting.
+	 */
+	abstract State state();
+
+	/**
+	 * Returns the id of the meeting.
+	 *
+	 * @return the id of the meeting.
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	/**
+	 * Return the date of the meeting.
+	 *
+	 * The Calendar is built for each call, so changing it doesn't change the
+	 * meeting.
+	 *
+	 * @return the date of the meeting.
+	 */
+	public Calendar getDate() {
+		Calendar date = new GregorianCalendar((TimeZone)zone.clone());
+		date.setTimeInMillis(time);
+		return date;
+	}
+
+	/**
+	 * Returns the date of the meeting in milliseconds since the epoch.
+	 *
+	 * @return the date of the meeting in milliseconds since the epoch.
+	 */
+	long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns the day of the meeting in days since 1970-01-01.
+	 *
+	 * @return the day of the meeting in days since 1970-01-01.
+	 */
+	long getDay() {
+		return day;
+	}
+
+	/**
+	 * Return the details of people that attended the meeting.
+	 *
+	 * The list contains a minimum of one contact (if there were just two
+	 * people: the user and the contact) and may contain an arbitrary number of
+	 * them.
+	 *
+	 * The set can't be modified.
+	 *
+	 * @return the details of people that attended the meeting.
+	 */
+	public Set<Contact> getContacts() {
+		return this.contacts;
+	}
+
+}
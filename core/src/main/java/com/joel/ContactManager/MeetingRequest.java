@@ -0,0 +1,45 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+import java.util.Set;
+
+/**
+ * A request for a meeting to be held in the future, before it gets an ID.
+ *
+ * Used to add several future meetings to a ContactManagerImpl at once.
+ */
+public class MeetingRequest {
+	private Set<Contact> contacts;
+	private Calendar date;
+
+	/**
+	 * Initialize a request from raw data.
+	 *
+	 * @param contacts
+	 *            a list of contacts that will participate in the meeting
+	 * @param date
+	 *            the date on which the meeting will take place
+	 */
+	public MeetingRequest(Set<Contact> contacts, Calendar date) {
+		this.contacts = contacts;
+		this.date = date;
+	}
+
+	/**
+	 * Return the details of people that will attend the meeting.
+	 *
+	 * @return the details of people that will attend the meeting.
+	 */
+	public Set<Contact> getContacts() {
+		return contacts;
+	}
+
+	/**
+	 * Return the date of the meeting.
+	 *
+	 * @return the date of the meeting.
+	 */
+	public Calendar getDate() {
+		return date;
+	}
+}
@@ -0,0 +1,227 @@
+package com.joel.ContactManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.joel.ContactManager.ContactManagerMetrics.Operation;
+
+/**
+ * Publishes RecordingMetrics over JMX, where jconsole or any JMX client can
+ * read them, or as a text report for a log.
+ *
+ * Over JMX, each operation is an MBean named
+ * com.joel.ContactManager:type=ContactManagerMetrics,operation=NAME, and the
+ * bytes written and read are in
+ * com.joel.ContactManager:type=ContactManagerMetrics,name=persistence. The
+ * attributes are read from the metrics when asked for, so they are always
+ * up to date.
+ */
+public class MetricsExporter {
+	private static final String DOMAIN = "com.joel.ContactManager";
+	private static final String TYPE = "type=ContactManagerMetrics";
+
+	/**
+	 * The calls of an operation. Latencies are in microseconds.
+	 */
+	public interface OperationMXBean {
+		long getCalls();
+		double getMeanLatency();
+		long getLatency50th();
+		long getLatency99th();
+		long getLatency999th();
+		long getMaxLatency();
+		double getMeanResults();
+		long getMaxResults();
+	}
+
+	/**
+	 * The bytes saved and read.
+	 */
+	public interface PersistenceMXBean {
+		long getBytesWritten();
+		long getBytesRead();
+	}
+
+	private static class OperationBean implements OperationMXBean {
+		private final Histogram latency;
+		private final Histogram results;
+
+		OperationBean(RecordingMetrics metrics, Operation op) {
+			this.latency = metrics.latency(op);
+			this.results = metrics.results(op);
+		}
+
+		public long getCalls() {
+			return latency.count();
+		}
+
+		public double getMeanLatency() {
+			return latency.mean() / 1000;
+		}
+
+		public long getLatency50th() {
+			return latency.valueAtPercentile(50) / 1000;
+		}
+
+		public long getLatency99th() {
+			return latency.valueAtPercentile(99) / 1000;
+		}
+
+		public long getLatency999th() {
+			return latency.valueAtPercentile(99.9) / 1000;
+		}
+
+		public long getMaxLatency() {
+			return latency.max() / 1000;
+		}
+
+		public double getMeanResults() {
+			return results.mean();
+		}
+
+		public long getMaxResults() {
+			return results.max();
+		}
+	}
+
+	private static class PersistenceBean implements PersistenceMXBean {
+		private final RecordingMetrics metrics;
+
+		PersistenceBean(RecordingMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		public long getBytesWritten() {
+			return metrics.bytesWritten();
+		}
+
+		public long getBytesRead() {
+			return metrics.bytesRead();
+		}
+	}
+
+	private MetricsExporter() {
+	}
+
+	/**
+	 * Returns the name of the MBean of an operation.
+	 *
+	 * @param operation the operation.
+	 * @return the name of its MBean.
+	 */
+	public static ObjectName nameOf(Operation operation) throws JMException {
+		return new ObjectName(DOMAIN + ":" + TYPE + ",operation=" + operation.name());
+	}
+
+	/**
+	 * Returns the name of the MBean of the bytes written and read.
+	 *
+	 * @return the name of the MBean.
+	 */
+	public static ObjectName persistenceName() throws JMException {
+		return new ObjectName(DOMAIN + ":" + TYPE + ",name=persistence");
+	}
+
+	/**
+	 * Register an MBean for each operation, and one for the bytes written and
+	 * read, such as in ManagementFactory.getPlatformMBeanServer().
+	 *
+	 * @param metrics the metrics to publish.
+	 * @param server where to register them.
+	 * @return the names of the MBeans registered.
+	 * @throws JMException
+	 *             if an MBean could not be registered, for instance because
+	 *             other metrics are registered already.
+	 */
+	public static List<ObjectName> register(RecordingMetrics metrics,
+			MBeanServer server) throws JMException {
+		List<ObjectName> names = new ArrayList<ObjectName>();
+		for (Operation op: Operation.values()) {
+			names.add(server.registerMBean(new OperationBean(metrics, op),
+					nameOf(op)).getObjectName());
+		}
+		names.add(server.registerMBean(new PersistenceBean(metrics),
+				persistenceName()).getObjectName());
+		return names;
+	}
+
+	/**
+	 * Unregister the MBeans of register(), so other metrics can be.
+	 *
+	 * @param server where they are registered.
+	 * @throws JMException
+	 *             if an MBean could not be unregistered.
+	 */
+	public static void unregister(MBeanServer server) throws JMException {
+		for (Operation op: Operation.values()) {
+			if (server.isRegistered(nameOf(op))) {
+				server.unregisterMBean(nameOf(op));
+			}
+		}
+		if (server.isRegistered(persistenceName())) {
+			server.unregisterMBean(persistenceName());
+		}
+	}
+
+	/**
+	 * Returns a report of the metrics, with a line for each operation that
+	 * has been called, and one for the bytes written and read. Latencies are
+	 * in microseconds.
+	 *
+	 * @param metrics the metrics to report.
+	 * @return the report.
+	 */
+	public static String report(RecordingMetrics metrics) {
+		StringBuilder sb = new StringBuilder();
+		for (Operation op: Operation.values()) {
+			Histogram latency = metrics.latency(op);
+			if (latency.count() == 0) {
+				continue;
+			}
+			Histogram results = metrics.results(op);
+			sb.append(String.format(Locale.ROOT,
+					"%s: calls=%d mean=%.1fus p50=%dus p99=%dus p999=%dus max=%dus",
+					op, latency.count(), latency.mean() / 1000,
+					latency.valueAtPercentile(50) / 1000,
+					latency.valueAtPercentile(99) / 1000,
+					latency.valueAtPercentile(99.9) / 1000,
+					latency.max() / 1000));
+			if (results.count() > 0) {
+				sb.append(String.format(Locale.ROOT, " results=%.1f max=%d",
+						results.mean(), results.max()));
+			}
+			sb.append('\n');
+		}
+		sb.append("bytes written=").append(metrics.bytesWritten())
+				.append(" read=").append(metrics.bytesRead()).append('\n');
+		return sb.toString();
+	}
+
+	/**
+	 * Pass a report of the metrics to a log at a fixed rate, from a daemon
+	 * thread, until the returned executor is shut down.
+	 *
+	 * @param metrics the metrics to report.
+	 * @param period the time between two reports.
+	 * @param unit the unit of period.
+	 * @param log where to pass the reports, such as System.out::print.
+	 * @return the executor running the reports.
+	 */
+	public static ScheduledExecutorService logEvery(RecordingMetrics metrics,
+			long period, TimeUnit unit, Consumer<String> log) {
+		ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(
+				ContactManagerImpl.daemonThreads("ContactManager metrics"));
+		logger.scheduleAtFixedRate(() -> log.accept(report(metrics)),
+				period, period, unit);
+		return logger;
+	}
+}
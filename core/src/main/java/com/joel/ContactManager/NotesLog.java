@@ -0,0 +1,207 @@
+package com.joel.ContactManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The notes of a contact or a meeting, kept as a log of the pieces added.
+ *
+ * The notes in a log never change: appending a piece makes a new log that
+ * points back to the old one, without copying any text, so adding notes
+ * costs the same however long the notes already are, and a meeting copied
+ * with more notes shares the old meeting's log.
+ *
+ * Pieces are kept either on the heap or in a NotesStore. On the heap, the
+ * whole text is only built when it is read, and then kept, so it is built
+ * once after each append; once built, the log forgets the pieces before it.
+ * In a store, the log keeps only where its pieces are, and the text is
+ * decoded from the store each time it is read.
+ *
+ * Logs can be read by any number of threads: the text is built from pieces
+ * that never change, and a thread that finds it built uses that.
+ */
+abstract class NotesLog {
+
+	/**
+	 * Create a log holding some notes, where ContactManagerImpl.notesStore
+	 * says.
+	 *
+	 * @param notes the notes.
+	 * @return the log.
+	 */
+	static NotesLog of(String notes) {
+		return of(notes, ContactManagerImpl.notesStore);
+	}
+
+	/**
+	 * Create a log holding some notes.
+	 *
+	 * @param notes the notes.
+	 * @param store the store to keep them in, or null to keep them on the
+	 *            heap.
+	 * @return the log.
+	 */
+	static NotesLog of(String notes, NotesStore store) {
+		if (store == null || notes == null) {
+			return new OnHeap(notes);
+		}
+		return new OffHeap(store, null, notes);
+	}
+
+	/**
+	 * Returns a log with a piece added on a new line, kept in the same place
+	 * as this one.
+	 *
+	 * @param piece the notes to add.
+	 * @return the new log.
+	 */
+	abstract NotesLog append(String piece);
+
+	/**
+	 * Returns whether there are no notes.
+	 *
+	 * @return whether the text is empty.
+	 */
+	abstract boolean isEmpty();
+
+	/**
+	 * Returns the whole text.
+	 *
+	 * @return the notes, one piece per line.
+	 */
+	public abstract String toString();
+
+	/**
+	 * A log kept on the heap, which keeps its text once built.
+	 */
+	private static final class OnHeap extends NotesLog {
+		/**
+		 * The log of the notes before this piece, or null if it is the first
+		 * or the text has been built.
+		 */
+		private volatile OnHeap previous;
+		/**
+		 * The piece added last.
+		 */
+		private final String piece;
+		/**
+		 * The whole text, or null if it has not been built yet.
+		 */
+		private volatile String text;
+		/**
+		 * The length of the whole text.
+		 */
+		private final int length;
+
+		OnHeap(String notes) {
+			this.piece = notes;
+			this.text = notes;
+			this.length = String.valueOf(notes).length();
+		}
+
+		private OnHeap(OnHeap previous, String piece) {
+			this.previous = previous;
+			this.piece = piece;
+			this.length = previous.length + 1 + String.valueOf(piece).length();
+		}
+
+		NotesLog append(String piece) {
+			return new OnHeap(this, piece);
+		}
+
+		boolean isEmpty() {
+			return length == 0;
+		}
+
+		public String toString() {
+			String t = text;
+			if (t != null || previous == null) {
+				return text;
+			}
+			// collect the pieces back to the first log with its text built
+			OnHeap[] pieces = new OnHeap[8];
+			int count = 0;
+			OnHeap log = this;
+			String prefix;
+			while (true) {
+				prefix = log.text;
+				if (prefix != null) {
+					break;
+				}
+				OnHeap p = log.previous;
+				if (p == null) {
+					// built by another thread meanwhile, or the first piece
+					prefix = log.text;
+					break;
+				}
+				if (count == pieces.length) {
+					pieces = Arrays.copyOf(pieces, count * 2);
+				}
+				pieces[count++] = log;
+				log = p;
+			}
+			StringBuilder sb = new StringBuilder(length);
+			sb.append(prefix);
+			while (count > 0) {
+				sb.append('\n').append(pieces[--count].piece);
+			}
+			t = sb.toString();
+			text = t;
+			previous = null;
+			return t;
+		}
+	}
+
+	/**
+	 * A log kept in a NotesStore, which holds only where its pieces are.
+	 */
+	private static final class OffHeap extends NotesLog {
+		private final NotesStore store;
+		private final OffHeap previous;
+		/**
+		 * Where the piece added last is in the store.
+		 */
+		private final long address;
+		/**
+		 * The length of the piece added last, in bytes.
+		 */
+		private final int bytes;
+		/**
+		 * The length of the whole text, in bytes.
+		 */
+		private final int total;
+
+		OffHeap(NotesStore store, OffHeap previous, String piece) {
+			byte[] encoded = NotesStore.encode(piece);
+			this.store = store;
+			this.previous = previous;
+			this.address = encoded.length == 0 ? 0 : store.put(encoded);
+			this.bytes = encoded.length;
+			this.total = previous == null ? bytes : previous.total + 1 + bytes;
+		}
+
+		NotesLog append(String piece) {
+			return new OffHeap(store, this, String.valueOf(piece));
+		}
+
+		boolean isEmpty() {
+			return total == 0;
+		}
+
+		public String toString() {
+			// fill the text from the end, as the pieces are linked backwards
+			byte[] text = new byte[total];
+			int end = total;
+			for (OffHeap log = this; log != null; log = log.previous) {
+				end -= log.bytes;
+				if (log.bytes > 0) {
+					store.get(log.address, text, end, log.bytes);
+				}
+				if (log.previous != null) {
+					text[--end] = '\n';
+				}
+			}
+			return new String(text, StandardCharsets.UTF_8);
+		}
+	}
+}
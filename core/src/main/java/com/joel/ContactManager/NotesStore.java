@@ -0,0 +1,150 @@
+package com.joel.ContactManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only region outside the Java heap to keep notes in.
+ *
+ * Set as ContactManagerImpl.notesStore, it holds the notes of the contacts
+ * and past meetings created afterwards: each piece of notes is written once,
+ * as UTF-8, and the contact or meeting keeps only where it was written. The
+ * text is decoded whenever getNotes() is called, and is not kept, so the
+ * notes take no room on the heap and cost the garbage collector nothing.
+ *
+ * The region is made of chunks, either direct buffers or pages of a file
+ * mapped into memory. The file is only scratch space, which is overwritten
+ * when the store is created: saving the data is still done by flush(). Space
+ * is never given back, even when the contacts and meetings holding notes are
+ * gone.
+ *
+ * Pieces are written by one thread at a time, and can be read by any number
+ * of threads meanwhile.
+ */
+public final class NotesStore {
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+	private final int chunkSize;
+	private final FileChannel file;
+	private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+	/**
+	 * The chunk being written to, and the position in it.
+	 */
+	private ByteBuffer current;
+	private long size;
+
+	/**
+	 * Create a store in direct buffers of 1 MiB.
+	 */
+	public NotesStore() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Create a store in direct buffers.
+	 *
+	 * @param chunkSize the size of each buffer, in bytes.
+	 */
+	public NotesStore(int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		this.file = null;
+	}
+
+	/**
+	 * Create a store in a file mapped into memory.
+	 *
+	 * @param path the file, which is created or emptied.
+	 * @param chunkSize the size of each mapping, in bytes.
+	 * @throws IOException if the file can't be opened.
+	 */
+	public NotesStore(Path path, int chunkSize) throws IOException {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		this.file = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Write a piece of notes.
+	 *
+	 * @param text the notes.
+	 * @return where they were written: the chunk in the upper 32 bits and the
+	 *         position in it in the lower ones.
+	 * @throws IllegalStateException if a mapped file can't be extended.
+	 */
+	synchronized long put(byte[] text) {
+		if (current == null || current.remaining() < text.length) {
+			current = newChunk(Math.max(chunkSize, text.length));
+		}
+		long address = (long) (chunks.length - 1) << 32 | current.position();
+		current.put(text);
+		size += text.length;
+		return address;
+	}
+
+	/**
+	 * Copy a piece of notes out of the store.
+	 *
+	 * @param address where the piece was written.
+	 * @param dst the array to copy to.
+	 * @param offset where to copy to in the array.
+	 * @param length the length of the piece, in bytes.
+	 */
+	void get(long address, byte[] dst, int offset, int length) {
+		ByteBuffer chunk = chunks[(int) (address >>> 32)].duplicate();
+		chunk.position((int) address);
+		chunk.get(dst, offset, length);
+	}
+
+	/**
+	 * Returns the number of bytes of notes written.
+	 *
+	 * @return the size of the notes written, in bytes.
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * Add a chunk, and publish it to readers.
+	 *
+	 * @param capacity the size of the chunk.
+	 * @return the chunk.
+	 */
+	private ByteBuffer newChunk(int capacity) {
+		ByteBuffer chunk;
+		if (file == null) {
+			chunk = ByteBuffer.allocateDirect(capacity);
+		} else {
+			try {
+				chunk = file.map(FileChannel.MapMode.READ_WRITE, file.size(), capacity);
+			} catch (IOException e) {
+				throw new IllegalStateException("Can't extend " + file, e);
+			}
+		}
+		ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+		grown[grown.length - 1] = chunk;
+		chunks = grown;
+		return chunk;
+	}
+
+	/**
+	 * Encode notes as they are kept in the store.
+	 *
+	 * @param text the notes.
+	 * @return the UTF-8 bytes of the notes.
+	 */
+	static byte[] encode(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,108 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+import java.util.Set;
+import java.util.TimeZone;
+
+public class PastMeetingImpl extends MeetingImpl implements PastMeeting {
+	private volatile NotesLog notes;
+
+	/**
+	 * Initialize a PastMeeting from raw data
+	 * 
+	 * @param contacts Set of invited contacts
+	 * @param date meeting date
+	 * @param notes notes for the meeting.
+	 */
+	public PastMeetingImpl(Set<Contact> contacts, Calendar date, String notes) {
+		super(contacts, date);
+		this.notes = NotesLog.of(notes);
+	}
+
+	/**
+	 * Initialize a PastMeeting with a known id, such as one read from disk.
+	 * 
+	 * @param contacts Set of invited contacts
+	 * @param date meeting date
+	 * @param notes notes for the meeting.
+	 * @param id the meeting id
+	 */
+	public PastMeetingImpl(Set<Contact> contacts, Calendar date, String notes, int id) {
+		super(contacts, date, id);
+		this.notes = NotesLog.of(notes);
+	}
+
+	/**
+	 * Initialize a PastMeeting at a time in a time zone, with a known id.
+	 * 
+	 * @param contacts Set of invited contacts
+	 * @param time meeting date, in milliseconds since the epoch
+	 * @param zone time zone of the meeting date
+	 * @param notes notes for the meeting.
+	 * @param id the meeting id
+	 */
+	PastMeetingImpl(Set<Contact> contacts, long time, TimeZone zone, String notes,
+			int id) {
+		super(contacts, time, zone, id);
+		this.notes = NotesLog.of(notes);
+	}
+
+	/**
+	 * Initialize a PastMeeting from a FutureMeeting, adding notes
+	 * and keeping the id.
+	 * 
+	 * @param fm FutureMeeting to copy
+	 * @param notes notes for the meeting.
+	 */
+	public PastMeetingImpl(FutureMeeting fm, String notes) {
+		super((Meeting)fm);
+		this.notes = NotesLog.of(notes);
+	}
+	
+	/**
+	 * Initialize a PastMeeting from another PastMeeting, adding to
+	 * the notes and keeping the id.
+	 * 
+	 * A meeting that took place without notes gets the new notes alone.
+	 * 
+	 * @param pm PastMeeting to copy
+	 * @param notes notes for the meeting.
+	 */
+	public PastMeetingImpl(PastMeeting pm, String notes) {
+		super((Meeting)pm);
+		this.notes = added(pm instanceof PastMeetingImpl
+				? ((PastMeetingImpl) pm).notes : NotesLog.of(pm.getNotes()), notes);
+	}
+
+	public String getNotes() {
+		return notes.toString();
+	}
+
+	/**
+	 * Add notes to the meeting, in place.
+	 *
+	 * A meeting that took place without notes gets the new notes alone.
+	 *
+	 * @param text notes to add.
+	 */
+	void appendNotes(String text) {
+		notes = added(notes, text);
+	}
+
+	/**
+	 * Returns notes with some more added, sharing the text already there.
+	 *
+	 * @param log the notes so far.
+	 * @param text notes to add.
+	 * @return the notes with the text added, or the text alone if there were
+	 *         no notes.
+	 */
+	private static NotesLog added(NotesLog log, String text) {
+		return log.isEmpty() ? NotesLog.of(text) : log.append(text);
+	}
+
+	State state() {
+		return notes.isEmpty() ? State.PAST_WITHOUT_NOTES : State.PAST_WITH_NOTES;
+	}
+
+}
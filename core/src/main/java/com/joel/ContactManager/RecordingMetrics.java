@@ -0,0 +1,93 @@
+package com.joel.ContactManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics that keep, for each operation, a histogram of the time its calls
+ * took and one of the number of items they returned, and the totals of bytes
+ * written and read.
+ *
+ * MetricsExporter publishes them over JMX or to a log.
+ */
+public class RecordingMetrics implements ContactManagerMetrics {
+	private final Map<Operation,Histogram> latencies =
+			new EnumMap<Operation,Histogram>(Operation.class);
+	private final Map<Operation,Histogram> resultSizes =
+			new EnumMap<Operation,Histogram>(Operation.class);
+	private final LongAdder bytesWritten = new LongAdder();
+	private final LongAdder bytesRead = new LongAdder();
+
+	public RecordingMetrics() {
+		// filled once, so the maps are only read afterwards
+		for (Operation op: Operation.values()) {
+			latencies.put(op, new Histogram());
+			resultSizes.put(op, new Histogram());
+		}
+	}
+
+	public void called(Operation operation, long nanos, int results) {
+		latencies.get(operation).record(nanos);
+		if (results >= 0) {
+			resultSizes.get(operation).record(results);
+		}
+	}
+
+	public void bytesWritten(long bytes) {
+		bytesWritten.add(bytes);
+	}
+
+	public void bytesRead(long bytes) {
+		bytesRead.add(bytes);
+	}
+
+	/**
+	 * Returns the number of calls of an operation.
+	 *
+	 * @param operation the operation.
+	 * @return the number of calls recorded.
+	 */
+	public long calls(Operation operation) {
+		return latencies.get(operation).count();
+	}
+
+	/**
+	 * Returns the time the calls of an operation took.
+	 *
+	 * @param operation the operation.
+	 * @return a histogram of the times, in nanoseconds.
+	 */
+	public Histogram latency(Operation operation) {
+		return latencies.get(operation);
+	}
+
+	/**
+	 * Returns the number of items the calls of an operation returned.
+	 *
+	 * @param operation the operation.
+	 * @return a histogram of the numbers of contacts or meetings returned,
+	 *         without the calls that returned none or failed.
+	 */
+	public Histogram results(Operation operation) {
+		return resultSizes.get(operation);
+	}
+
+	/**
+	 * Returns the number of bytes written to disk.
+	 *
+	 * @return the bytes written to snapshots and journals.
+	 */
+	public long bytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	/**
+	 * Returns the number of bytes read from disk.
+	 *
+	 * @return the bytes read from snapshots and journals.
+	 */
+	public long bytesRead() {
+		return bytesRead.sum();
+	}
+}
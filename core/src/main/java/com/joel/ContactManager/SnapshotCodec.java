@@ -0,0 +1,32 @@
+package com.joel.ContactManager;
+
+import java.io.IOException;
+
+/**
+ * A way of saving all the contacts and meetings of a ContactManagerImpl to a
+ * file, and of reading them back.
+ */
+public interface SnapshotCodec {
+	/**
+	 * Returns the name of the file the data is saved to.
+	 *
+	 * @return the name of the file.
+	 */
+	String getFileName();
+
+	/**
+	 * Save all the contacts and meetings of a manager, with their ids.
+	 *
+	 * @param mgr the manager to save.
+	 */
+	void write(ContactManagerImpl mgr) throws IOException;
+
+	/**
+	 * Read saved contacts and meetings into a manager, keeping their ids.
+	 *
+	 * @param mgr the manager to read into, normally empty.
+	 * @throws java.io.FileNotFoundException
+	 *             if there is no saved data
+	 */
+	void read(ContactManagerImpl mgr) throws IOException;
+}
@@ -0,0 +1,197 @@
+package com.joel.ContactManager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+/**
+ * Saves contacts and meetings as lines of text, one field per line.
+ *
+ * The file starts with a line identifying the format and a line with the
+ * number of the last change included, followed by the contacts (id, name,
+ * notes), the past meetings (id, time in milliseconds since the epoch,
+ * time zone id, guest ids, an empty line, notes) and the future meetings
+ * (same as past meetings, without notes). Each of the three lists ends with
+ * an empty line.
+ */
+public class TextSnapshotCodec implements SnapshotCodec {
+	/**
+	 * First line of the save file, identifying its format.
+	 */
+	private static final String FORMAT = "ContactManager ids 3";
+	private String fileName;
+
+	/**
+	 * Create a codec that saves to a file.
+	 *
+	 * @param fileName the file to save to.
+	 */
+	public TextSnapshotCodec(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Save all the contacts and meetings of a manager, with their ids.
+	 *
+	 * The data is written to a temporary file that then replaces the save
+	 * file, so the previous snapshot stays whole if writing fails.
+	 *
+	 * @param mgr the manager to save.
+	 */
+	public void write(ContactManagerImpl mgr) throws IOException {
+		String tmpName = fileName + ".tmp";
+		BufferedWriter writer = new BufferedWriter(new FileWriter(tmpName));
+		boolean written = false;
+		try {
+			EscapedLineCodec.writeEscaped(writer, FORMAT);
+			EscapedLineCodec.writeEscaped(writer, "" + mgr.getJournalSequence());
+			for (Contact c: mgr.contacts()) {
+				EscapedLineCodec.writeEscaped(writer, "" + c.getId());
+				EscapedLineCodec.writeEscaped(writer, c.getName());
+				EscapedLineCodec.writeEscaped(writer, c.getNotes());
+			}
+			writer.newLine();
+			for (PastMeeting m: mgr.pastMeetings()) {
+				writeMeeting(writer, m);
+				EscapedLineCodec.writeEscaped(writer, m.getNotes());
+			}
+			writer.newLine();
+			for (FutureMeeting m: mgr.futureMeetings()) {
+				writeMeeting(writer, m);
+			}
+			writer.newLine();
+			written = true;
+		} finally {
+			writer.close();
+			if (!written) {
+				// don't leave a partial snapshot behind
+				Files.deleteIfExists(Paths.get(tmpName));
+			}
+		}
+		Files.move(Paths.get(tmpName), Paths.get(fileName),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public void read(ContactManagerImpl mgr) throws IOException {
+		FileReader file = new FileReader(fileName);
+		BufferedReader reader = new BufferedReader(file);
+		try {
+			String line = EscapedLineCodec.readUnescaped(reader);
+			if (!line.equals(FORMAT)) {
+				throw new IOException(fileName + ": unknown format " + line);
+			}
+			mgr.setSnapshotSequence(Long.parseLong(EscapedLineCodec.readUnescaped(reader)));
+			List<ContactImpl> contacts = new ArrayList<ContactImpl>();
+			line = EscapedLineCodec.readUnescaped(reader);
+			while (!line.isEmpty()) {
+				int id = parseId(line);
+				String name = EscapedLineCodec.readUnescaped(reader);
+				String notes = EscapedLineCodec.readUnescaped(reader);
+				contacts.add(new ContactImpl(name, notes, id));
+				line = EscapedLineCodec.readUnescaped(reader);
+			}
+			mgr.loadContacts(contacts);
+			List<PastMeeting> past = new ArrayList<PastMeeting>();
+			line = EscapedLineCodec.readUnescaped(reader);
+			while (!line.isEmpty()) {
+				int id = parseId(line);
+				long time = Long.parseLong(EscapedLineCodec.readUnescaped(reader));
+				TimeZone zone = MeetingImpl.timeZone(EscapedLineCodec.readUnescaped(reader));
+				Set<Contact> guests = readGuests(mgr, reader);
+				String notes = EscapedLineCodec.readUnescaped(reader);
+				past.add(new PastMeetingImpl(guests, time, zone, notes, id));
+				line = EscapedLineCodec.readUnescaped(reader);
+			}
+			List<FutureMeeting> future = new ArrayList<FutureMeeting>();
+			line = EscapedLineCodec.readUnescaped(reader);
+			while (!line.isEmpty()) {
+				int id = parseId(line);
+				long time = Long.parseLong(EscapedLineCodec.readUnescaped(reader));
+				TimeZone zone = MeetingImpl.timeZone(EscapedLineCodec.readUnescaped(reader));
+				Set<Contact> guests = readGuests(mgr, reader);
+				future.add(new FutureMeetingImpl(guests, time, zone, id));
+				line = EscapedLineCodec.readUnescaped(reader);
+			}
+			mgr.loadMeetings(past, future);
+		} catch (NumberFormatException e) {
+			throw new IOException(fileName + ": malformed number", e);
+		} finally {
+			reader.close();
+			file.close();
+		}
+	}
+
+	/**
+	 * Write the id, date and guest ids of a meeting, followed by an empty line.
+	 *
+	 * @param w the stream to write to
+	 * @param m the meeting to write
+	 */
+	private static void writeMeeting(BufferedWriter w, Meeting m) throws IOException {
+		EscapedLineCodec.writeEscaped(w, "" + m.getId());
+		EscapedLineCodec.writeEscaped(w, "" + ContactManagerImpl.timeOf(m));
+		EscapedLineCodec.writeEscaped(w, MeetingImpl.zoneOf(m).getID());
+		for (Contact c: m.getContacts()) {
+			EscapedLineCodec.writeEscaped(w, "" + c.getId());
+		}
+		w.newLine();
+	}
+
+	/**
+	 * Parse the id of a contact or meeting.
+	 *
+	 * @param line the line holding the id
+	 * @return the id.
+	 * @throws IOException
+	 *             if the id can't have been allocated
+	 * @throws NumberFormatException
+	 *             if the line is not a number
+	 */
+	private int parseId(String line) throws IOException {
+		int id = Integer.parseInt(line);
+		if (!IdTable.isValidId(id)) {
+			throw new IOException(fileName + ": malformed id " + id);
+		}
+		return id;
+	}
+
+	/**
+	 * Read the guests of a meeting written by writeMeeting, up to and
+	 * including the empty line after them.
+	 *
+	 * @param mgr the manager the guests are contacts of
+	 * @param r the reader to read from
+	 * @return the guests of the meeting.
+	 * @throws IOException
+	 *             if any of the guests is not a contact of the manager
+	 */
+	private Set<Contact> readGuests(ContactManagerImpl mgr, BufferedReader r)
+			throws IOException {
+		Set<Contact> guests = new HashSet<Contact>();
+		String line = EscapedLineCodec.readUnescaped(r);
+		while (!line.isEmpty()) {
+			int id = parseId(line);
+			Contact c = mgr.getContact(id);
+			if (c == null) {
+				throw new IOException(fileName + ": unknown guest " + id);
+			}
+			guests.add(c);
+			line = EscapedLineCodec.readUnescaped(r);
+		}
+		return guests;
+	}
+}
@@ -1,11 +0,0 @@
-package com.joel.ContactManager;
-
-import java.util.Calendar;
-import java.util.Set;
-
-public class FutureMeetingImpl extends MeetingImpl implements FutureMeeting {
-
-	public FutureMeetingImpl(Set<Contact> contacts, Calendar date) {
-		super(contacts, date);
-	}
-}
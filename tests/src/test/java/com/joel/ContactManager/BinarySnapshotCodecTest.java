@@ -0,0 +1,183 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinarySnapshotCodecTest {
+	private File file;
+	private SnapshotCodec codec;
+	private ContactManagerImpl mgr;
+	private Contact moe, larry;
+
+	@Before
+	public void setUp() throws IOException {
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2014,  11, 30));
+		file = File.createTempFile("contacts", ".bin");
+		codec = new BinarySnapshotCodec(file.getPath());
+		mgr = new ContactManagerImpl();
+		mgr.addNewContact("Moe Stooge", "The smart one\nReally");
+		mgr.addNewContact("Larry Stööge", "");
+		moe = mgr.getContacts("Moe").iterator().next();
+		larry = mgr.getContacts("Larry").iterator().next();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Calendar past = new GregorianCalendar(1963, 01, 27);
+		Calendar future = new GregorianCalendar(2030, 02, 12);
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId(), larry.getId()), past,
+				"Moe hit Larry");
+		int pastId = mgr.getPastMeetingList(moe).get(0).getId();
+		int futureId = mgr.addFutureMeeting(mgr.getContacts(larry.getId()), future);
+		codec.write(mgr);
+
+		ContactManagerImpl mgr2 = new ContactManagerImpl();
+		codec.read(mgr2);
+		Contact moe2 = mgr2.getContact(moe.getId());
+		assertEquals("Wrong name", "Moe Stooge", moe2.getName());
+		assertEquals("Wrong notes", "The smart one\nReally", moe2.getNotes());
+		assertEquals("Wrong name", "Larry Stööge", mgr2.getContact(larry.getId()).getName());
+		PastMeeting pm = mgr2.getPastMeeting(pastId);
+		assertEquals("Wrong date", past, pm.getDate());
+		assertEquals("Wrong guests", mgr2.getContacts(moe.getId(), larry.getId()),
+				pm.getContacts());
+		assertEquals("Wrong notes", "Moe hit Larry", pm.getNotes());
+		FutureMeeting fm = mgr2.getFutureMeeting(futureId);
+		assertEquals("Wrong date", future, fm.getDate());
+		assertEquals("Wrong guests", mgr2.getContacts(larry.getId()), fm.getContacts());
+	}
+
+	@Test
+	public void testMeetingsSortedAfterRead() throws IOException {
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		mgr.addNewPastMeeting(guests, new GregorianCalendar(1970, 01, 01), "Third");
+		mgr.addNewPastMeeting(guests, new GregorianCalendar(1960, 01, 01), "First");
+		mgr.addNewPastMeeting(guests, new GregorianCalendar(1965, 01, 01), "Second");
+		codec.write(mgr);
+		ContactManagerImpl mgr2 = new ContactManagerImpl();
+		codec.read(mgr2);
+		List<PastMeeting> meets = mgr2.getPastMeetingList(mgr2.getContact(moe.getId()));
+		assertEquals("Wrong number of meetings", 3, meets.size());
+		assertEquals("Wrong order", "First", meets.get(0).getNotes());
+		assertEquals("Wrong order", "Second", meets.get(1).getNotes());
+		assertEquals("Wrong order", "Third", meets.get(2).getNotes());
+		assertEquals("Wrong day index", 1, mgr2.getFutureMeetingList(
+				new GregorianCalendar(1965, 01, 01)).size());
+	}
+
+	@Test
+	public void testTimesKept() throws IOException {
+		Calendar now = new GregorianCalendar(2014, 11, 30, 14, 0);
+		ContactManagerImpl.todayProvider = new FakeCurrentDayProvider(now);
+		Calendar earlier = new GregorianCalendar(TimeZone.getTimeZone("Asia/Kolkata"));
+		earlier.setTimeInMillis(now.getTimeInMillis() - 30 * 60 * 1000);
+		Calendar soon = new GregorianCalendar(TimeZone.getTimeZone("America/New_York"));
+		soon.setTimeInMillis(now.getTimeInMillis() + 30 * 60 * 1000);
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId()), earlier, "Moe was early");
+		int pastId = mgr.getPastMeetingList(moe).get(0).getId();
+		int futureId = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), soon);
+		codec.write(mgr);
+
+		ContactManagerImpl mgr2 = new ContactManagerImpl();
+		codec.read(mgr2);
+		Calendar date = mgr2.getPastMeeting(pastId).getDate();
+		assertEquals("Wrong time", earlier.getTimeInMillis(), date.getTimeInMillis());
+		assertEquals("Wrong time zone", "Asia/Kolkata", date.getTimeZone().getID());
+		FutureMeeting fm = mgr2.getFutureMeeting(futureId);
+		assertNotNull("Meeting in the past", fm);
+		assertEquals("Wrong time", soon.getTimeInMillis(), fm.getDate().getTimeInMillis());
+		assertEquals("Wrong time zone", "America/New_York",
+				fm.getDate().getTimeZone().getID());
+		assertEquals("Meeting not future", 1,
+				mgr2.getFutureMeetingList(mgr2.getContact(moe.getId())).size());
+	}
+
+	@Test(expected=IOException.class)
+	public void testTruncated() throws IOException {
+		codec.write(mgr);
+		RandomAccessFile f = new RandomAccessFile(file, "rw");
+		f.setLength(file.length() - 1);
+		f.close();
+		codec.read(new ContactManagerImpl());
+	}
+
+	@Test
+	public void testTruncatedAnywhere() throws IOException {
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId(), larry.getId()),
+				new GregorianCalendar(1963, 01, 27), "Moe hit Larry");
+		mgr.addFutureMeeting(mgr.getContacts(larry.getId()), new GregorianCalendar(2030, 02, 12));
+		codec.write(mgr);
+		byte[] whole = Files.readAllBytes(file.toPath());
+		for (int length = 0; length < whole.length; length++) {
+			Files.write(file.toPath(), Arrays.copyOf(whole, length));
+			try {
+				codec.read(new ContactManagerImpl());
+				fail("Read " + length + " of " + whole.length + " bytes");
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	@Test(expected=IOException.class)
+	public void testAbsurdId() throws IOException {
+		DataOutputStream out = rewriteAfterHeader();
+		BinarySnapshotCodec.writeVarint(out, 1);
+		BinarySnapshotCodec.writeVarint(out, Integer.MAX_VALUE);
+		BinarySnapshotCodec.writeString(out, "Moe Stooge");
+		BinarySnapshotCodec.writeString(out, "");
+		out.close();
+		codec.read(new ContactManagerImpl());
+	}
+
+	@Test(expected=IOException.class)
+	public void testNegativeLength() throws IOException {
+		DataOutputStream out = rewriteAfterHeader();
+		BinarySnapshotCodec.writeVarint(out, 1);
+		BinarySnapshotCodec.writeVarint(out, moe.getId());
+		BinarySnapshotCodec.writeVarint(out, -1);
+		out.close();
+		codec.read(new ContactManagerImpl());
+	}
+
+	/**
+	 * Write a snapshot and open it again to replace all it has after the
+	 * magic number and sequence.
+	 *
+	 * @return the stream to write the rest of the snapshot to.
+	 */
+	private DataOutputStream rewriteAfterHeader() throws IOException {
+		codec.write(mgr);
+		byte[] header = Arrays.copyOf(Files.readAllBytes(file.toPath()), 12);
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+		out.write(header);
+		return out;
+	}
+
+	@Test(expected=IOException.class)
+	public void testWrongFormat() throws IOException {
+		new TextSnapshotCodec(file.getPath()).write(mgr);
+		codec.read(new ContactManagerImpl());
+	}
+}
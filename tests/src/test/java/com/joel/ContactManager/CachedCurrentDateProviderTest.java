@@ -0,0 +1,68 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.junit.Test;
+
+public class CachedCurrentDateProviderTest {
+
+	/**
+	 * A fake provider counting how often it is asked for the date.
+	 */
+	private static class CountingDayProvider extends FakeCurrentDayProvider {
+		int calls;
+
+		CountingDayProvider(Calendar date) {
+			super(date);
+		}
+
+		public Calendar today() {
+			calls++;
+			return super.today();
+		}
+	}
+
+	@Test
+	public void testDayGranularityReadsOnce() {
+		CountingDayProvider source =
+				new CountingDayProvider(new GregorianCalendar(2014, 11, 30));
+		CurrentDateProvider cached =
+				new CachedCurrentDateProvider(source, ChronoUnit.DAYS);
+		long now = cached.now();
+		source.date = new GregorianCalendar(2015, 0, 1);
+		assertEquals("Date not cached", now, cached.now());
+		assertEquals("Source asked again", 1, source.calls);
+		assertEquals("Wrong date", new GregorianCalendar(2014, 11, 30).getTimeInMillis(), now);
+	}
+
+	@Test
+	public void testTodayMatchesNow() {
+		CurrentDateProvider cached = new CachedCurrentDateProvider(
+				new FakeCurrentDayProvider(new GregorianCalendar(2014, 11, 30)),
+				ChronoUnit.DAYS);
+		assertEquals("Wrong date", new GregorianCalendar(2014, 11, 30), cached.today());
+	}
+
+	@Test
+	public void testMillisecondGranularityRefreshes() throws InterruptedException {
+		CountingDayProvider source =
+				new CountingDayProvider(new GregorianCalendar(2014, 11, 30));
+		CurrentDateProvider cached =
+				new CachedCurrentDateProvider(source, ChronoUnit.MILLIS);
+		cached.now();
+		Thread.sleep(5);
+		source.date = new GregorianCalendar(2015, 0, 1);
+		assertEquals("Date not refreshed",
+				new GregorianCalendar(2015, 0, 1).getTimeInMillis(), cached.now());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testGranularityTooCoarse() {
+		new CachedCurrentDateProvider(new GregorianCalendarCurrentDateProvider(),
+				ChronoUnit.WEEKS);
+	}
+}
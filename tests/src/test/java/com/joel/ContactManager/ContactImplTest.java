@@ -21,6 +21,15 @@ public class ContactImplTest {
 		assertNotEquals("Id should be different", contact1.getId(), contact2.getId());
 	}
 	
+	@Test
+	public void testKnownId() {
+		Contact known = new ContactImpl("Gary Farmer", "The other indian",
+				contact2.getId() + 10);
+		assertEquals("Wrong id", contact2.getId() + 10, known.getId());
+		Contact next = new ContactImpl("Johnny Depp", "The accountant");
+		assertTrue("Id should be after known id", next.getId() > known.getId());
+	}
+	
 	@Test
 	public void testGetName() {
 		assertEquals("Wrong name 1", "William Blake", contact1.getName());
@@ -0,0 +1,938 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContactManagerImplTest {
+	ContactManager mgr;
+	Contact moe, larry, curly;
+	
+	@Before
+	public void setUp() {
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2014,  11, 30));
+		mgr = new ContactManagerImpl();
+	}
+	
+	@Test(expected=NullPointerException.class)
+	public void nullContactNamePatternTest() {
+		mgr.getContacts((String)null);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void unknownContactIdTest() {
+		mgr.getContacts(0);
+	}
+
+	@Test
+	public void emptyContactListTest() {
+		Set<Contact> contacts = mgr.getContacts("");
+		assertEquals("Expected empty list", 0, contacts.size());
+	}
+
+	@Test
+	public void addOneContactTest() {
+		mgr.addNewContact("Moe Stooge", "The smart one");
+		Set<Contact> contacts = mgr.getContacts("");
+		assertEquals("Wrong number of contacts", 1, contacts.size());
+		Contact c = contacts.iterator().next();
+		assertEquals("Wrong name set", "Moe Stooge", c.getName());	
+		assertEquals("Wrong notes set", "The smart one", c.getNotes());	
+	}
+
+	@Test
+	public void nullContactNameTest() {
+		try {
+			mgr.addNewContact(null, "Nobody");
+			fail("Expected NullPointerException");
+		} catch (NullPointerException e) {
+		}
+		assertEquals("Contact without name added", 0, mgr.getContacts("").size());
+	}
+
+	@Test
+	public void addAndFindContactTest() {
+		mgr.addNewContact("Moe Stooge", "The smart one");
+		mgr.addNewContact("Larry Stooge", "The crazy one");
+		mgr.addNewContact("Curly Stooge", "The bald one");
+		Set<Contact> contacts = mgr.getContacts("");
+		assertEquals("Wrong number of contacts", 3, contacts.size());
+		moe = null;
+		larry = null;
+		curly = null;
+		Iterator<Contact> i = contacts.iterator();
+		while (i.hasNext()) {
+			Contact c = i.next();
+			switch (c.getName()) {
+			case "Moe Stooge":
+				moe = c;
+				break;
+			case "Larry Stooge":
+				larry = c;
+				break;
+			case "Curly Stooge":
+				curly = c;
+				break;
+			default:
+				fail("Unexpected name: " + c.getName());
+			}
+		}
+		assertNotNull("Moe is missing", moe);
+		assertNotNull("Larry is missing", larry);
+		assertNotNull("Curly is missing", curly);
+		assertEquals("Notes mismatch", "The smart one", moe.getNotes());
+		assertEquals("Notes mismatch", "The crazy one", larry.getNotes());
+		assertEquals("Notes mismatch", "The bald one", curly.getNotes());
+		Set<Contact> aSet = mgr.getContacts("Moe");
+		assertEquals("Wrong number of contacts found", 1, aSet.size());
+		assertEquals("Wrong contact found", moe, aSet.iterator().next());
+		aSet = mgr.getContacts("Larry");
+		assertEquals("Wrong number of contacts found", 1, aSet.size());
+		assertEquals("Wrong contact found", larry, aSet.iterator().next());
+		aSet = mgr.getContacts("Curly");
+		assertEquals("Wrong number of contacts found", 1, aSet.size());
+		assertEquals("Wrong contact found", curly, aSet.iterator().next());
+		aSet = mgr.getContacts("Stooge");
+		assertEquals("Wrong set returned", contacts, aSet);
+		Set<Contact> rSet =  mgr.getContacts("r");
+		aSet = mgr.getContacts(larry.getId(), curly.getId());
+		assertEquals("Wrong subsets selected", aSet, rSet);
+	}
+
+	@Test
+	public void findContactsByPrefixTest() {
+		setUpContacts();
+		assertEquals("Wrong contact found", mgr.getContacts(larry.getId()),
+				((ContactManagerImpl)mgr).getContactsByPrefix("La"));
+		assertEquals("Expected no contact", new HashSet<Contact>(),
+				((ContactManagerImpl)mgr).getContactsByPrefix("Stooge"));
+	}
+
+	private void setUpContacts() {
+		mgr.addNewContact("Moe Stooge", "The smart one");
+		mgr.addNewContact("Larry Stooge", "The crazy one");
+		mgr.addNewContact("Curly Stooge", "The bald one");
+		moe = mgr.getContacts("Moe").iterator().next();
+		larry = mgr.getContacts("Larry").iterator().next();
+		curly = mgr.getContacts("Curly").iterator().next();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void futureMeetingInPastTest() {
+		setUpContacts();
+		mgr.addFutureMeeting(
+				mgr.getContacts(moe.getId()),
+				new GregorianCalendar(1963, 01, 27));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void futureMeetingEmptyGuests() {
+		setUpContacts();
+		mgr.addFutureMeeting(
+				new HashSet<Contact>(),
+				new GregorianCalendar(2020, 01, 27));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void futureMeetingUnknownGuest() {
+		setUpContacts();
+		Contact wrongContact = new ContactImpl("Charlie Chaplin", "The Tramp");
+		Set<Contact> guests = new HashSet<Contact>();
+		guests.add(moe);
+		guests.add(wrongContact);
+		mgr.addFutureMeeting(
+				guests,	new GregorianCalendar(2020, 01, 27));
+	}
+
+	@Test
+	public void addFutureMeetingsTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		Calendar otherDate = new GregorianCalendar(2020, 02, 12);
+		Set<Contact> guests1 = mgr.getContacts(moe.getId());
+		Set<Contact> guests2 = mgr.getContacts(moe.getId(), larry.getId());
+		List<Integer> ids = ((ContactManagerImpl)mgr).addFutureMeetings(Arrays.asList(
+				new MeetingRequest(guests1, date),
+				new MeetingRequest(guests2, otherDate)));
+		assertEquals("Wrong number of ids", 2, ids.size());
+		assertEquals("Wrong guest list", guests1, mgr.getFutureMeeting(ids.get(0)).getContacts());
+		assertEquals("Wrong date", otherDate, mgr.getFutureMeeting(ids.get(1)).getDate());
+		assertEquals("Wrong meeting list", 2, mgr.getFutureMeetingList(moe).size());
+	}
+
+	@Test
+	public void addFutureMeetingsOrderTest() {
+		setUpContacts();
+		Set<Contact> guests = mgr.getContacts(moe.getId(), larry.getId());
+		Calendar early = new GregorianCalendar(2020, 01, 27, 9, 0);
+		Calendar noon = new GregorianCalendar(2020, 01, 27, 12, 0);
+		Calendar late = new GregorianCalendar(2020, 02, 12);
+		int first = mgr.addFutureMeeting(guests, noon);
+		List<Integer> ids = ((ContactManagerImpl)mgr).addFutureMeetings(Arrays.asList(
+				new MeetingRequest(guests, late),
+				new MeetingRequest(mgr.getContacts(moe.getId()), noon),
+				new MeetingRequest(guests, early)));
+		List<Integer> expected = Arrays.asList(ids.get(2), first, ids.get(1), ids.get(0));
+		assertEquals("Wrong order", expected, idsOf(mgr.getFutureMeetingList(moe)));
+		assertEquals("Wrong order", Arrays.asList(ids.get(2), first, ids.get(0)),
+				idsOf(mgr.getFutureMeetingList(larry)));
+		assertEquals("Wrong day list", expected.subList(0, 3),
+				idsOf(mgr.getFutureMeetingList(noon)));
+
+		ContactManagerImpl.todayProvider = new FakeCurrentDayProvider(
+				new GregorianCalendar(2020, 01, 28));
+		// which moves the meetings due first
+		mgr.addMeetingNotes(first, "Nothing happened");
+		assertEquals("Wrong notes", "Nothing happened", mgr.getPastMeeting(first).getNotes());
+		assertEquals("Wrong order", expected.subList(0, 3),
+				idsOf(mgr.getPastMeetingList(moe)));
+		assertEquals("Wrong order", expected.subList(3, 4),
+				idsOf(mgr.getFutureMeetingList(moe)));
+	}
+
+	/**
+	 * Returns the ids of some meetings.
+	 *
+	 * @param meetings the meetings.
+	 * @return their ids, in the same order.
+	 */
+	private static List<Integer> idsOf(List<? extends Meeting> meetings) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Meeting m: meetings) {
+			ids.add(m.getId());
+		}
+		return ids;
+	}
+
+	@Test
+	public void addFutureMeetingsUnknownGuestTest() {
+		setUpContacts();
+		Contact wrongContact = new ContactImpl("Charlie Chaplin", "The Tramp");
+		Set<Contact> guests = new HashSet<Contact>();
+		guests.add(wrongContact);
+		try {
+			((ContactManagerImpl)mgr).addFutureMeetings(Arrays.asList(
+					new MeetingRequest(mgr.getContacts(moe.getId()),
+							new GregorianCalendar(2020, 01, 27)),
+					new MeetingRequest(guests, new GregorianCalendar(2020, 01, 27))));
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertEquals("No meeting should be added", 0,
+					mgr.getFutureMeetingList(moe).size());
+		}
+	}
+
+	@Test
+	public void getMeetingWhileEmpty() {
+		assertNull("No meeting expected", mgr.getMeeting(1));
+	}
+	
+	@Test
+	public void addFutureMeetingTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		int meetId = mgr.addFutureMeeting(guests, date);
+		FutureMeeting meet = mgr.getFutureMeeting(meetId);
+		assertNotNull("Expected a meeting", meet);
+		assertEquals("Wrong guest list", guests, meet.getContacts());
+		assertEquals("Wrong date", date, meet.getDate());
+		assertEquals("Expected to find", meet, mgr.getMeeting(meetId));
+	}
+	
+	@Test
+	public void addSeveralFutureMeetingsTest() {
+		setUpContacts();
+		
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		Calendar otherDate = new GregorianCalendar(2020, 02, 12);
+		Set<Contact> guests1 = mgr.getContacts(moe.getId());
+		Set<Contact> guests2 = mgr.getContacts(moe.getId(), larry.getId());
+		Set<Contact> guests3 = mgr.getContacts(moe.getId());
+
+		int meet1Id = mgr.addFutureMeeting(guests1, date);
+		int meet2Id = mgr.addFutureMeeting(guests2, date);
+		int meet3Id = mgr.addFutureMeeting(guests3, otherDate);
+	
+		FutureMeeting meet1 = mgr.getFutureMeeting(meet1Id);
+		assertNotNull("Expected meeting", meet1);
+		assertEquals("Wrong guest list", guests1, meet1.getContacts());
+		assertEquals("Wrong date list", date, meet1.getDate());
+		FutureMeeting meet2 = mgr.getFutureMeeting(meet2Id);
+		assertNotNull("Expected meeting", meet2);
+		assertEquals("Wrong guest list", guests2, meet2.getContacts());
+		assertEquals("Wrong date list", date, meet2.getDate());
+		FutureMeeting meet3 = mgr.getFutureMeeting(meet3Id);
+		assertNotNull("Expected meeting", meet3);
+		assertEquals("Wrong guest list", guests3, meet3.getContacts());
+		assertEquals("Wrong date list", otherDate, meet3.getDate());
+
+		assertEquals("Find mismatch",
+				mgr.getFutureMeeting(meet1Id), mgr.getMeeting(meet1Id));
+		assertEquals("Find mismatch",
+				mgr.getFutureMeeting(meet2Id), mgr.getMeeting(meet2Id));
+		assertEquals("Find mismatch",
+				mgr.getFutureMeeting(meet3Id), mgr.getMeeting(meet3Id));
+		
+		Meeting[] expectedMeetsMoe = {meet1, meet2, meet3};
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(Arrays.asList(expectedMeetsMoe)),
+				new HashSet<Meeting>(mgr.getFutureMeetingList(moe)));
+		Meeting[] expectedMeetsLarry = {meet2};
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(Arrays.asList(expectedMeetsLarry)),
+				new HashSet<Meeting>(mgr.getFutureMeetingList(larry)));
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(),
+				new HashSet<Meeting>(mgr.getFutureMeetingList(curly)));
+
+		Meeting[] expectedMeetsDate = {meet1, meet2};
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(Arrays.asList(expectedMeetsDate)),
+				new HashSet<Meeting>(mgr.getFutureMeetingList(date)));
+		Meeting[] expectedMeetsOtherDate = {meet3};
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(Arrays.asList(expectedMeetsOtherDate)),
+				new HashSet<Meeting>(mgr.getFutureMeetingList(otherDate)));
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(),
+				new HashSet<Meeting>(mgr.getFutureMeetingList(
+						new GregorianCalendar(2020, 10, 11))));
+
+		assertEquals("Wrong meeting list",
+				new HashSet<PastMeeting>(),
+				new HashSet<PastMeeting>(mgr.getPastMeetingList(moe)));
+
+	}
+
+	@Test
+	public void meetingsOnSameDayTest() {
+		setUpContacts();
+		Calendar morning = new GregorianCalendar(2020, 01, 27, 9, 0);
+		Calendar evening = new GregorianCalendar(2020, 01, 27, 18, 30);
+		int eveningId = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), evening);
+		int morningId = mgr.addFutureMeeting(mgr.getContacts(larry.getId()), morning);
+		List<Meeting> meets = mgr.getFutureMeetingList(new GregorianCalendar(2020, 01, 27));
+		assertEquals("Wrong number of meetings", 2, meets.size());
+		assertEquals("Wrong order", morningId, meets.get(0).getId());
+		assertEquals("Wrong order", eveningId, meets.get(1).getId());
+	}
+
+	@Test
+	public void meetingsBetweenAndNextMeetingsTest() {
+		setUpContacts();
+		ContactManagerImpl cmi = (ContactManagerImpl)mgr;
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		mgr.addNewPastMeeting(guests, new GregorianCalendar(2014, 10, 11), "Met");
+		int meet1Id = mgr.addFutureMeeting(guests, new GregorianCalendar(2020, 01, 27));
+		int meet2Id = mgr.addFutureMeeting(guests, new GregorianCalendar(2020, 02, 12));
+		int meet3Id = mgr.addFutureMeeting(guests, new GregorianCalendar(2021, 05, 01));
+		List<Meeting> meets = cmi.getMeetingsBetween(
+				new GregorianCalendar(2020, 01, 27), new GregorianCalendar(2020, 02, 12));
+		assertEquals("Wrong number of meetings", 2, meets.size());
+		assertEquals("Wrong meeting", meet1Id, meets.get(0).getId());
+		assertEquals("Wrong meeting", meet2Id, meets.get(1).getId());
+		assertEquals("Wrong number of meetings", 4, cmi.getMeetingsBetween(
+				new GregorianCalendar(2000, 0, 1), new GregorianCalendar(2100, 0, 1)).size());
+		meets = cmi.getNextMeetings(2);
+		assertEquals("Wrong number of meetings", 2, meets.size());
+		assertEquals("Wrong meeting", meet1Id, meets.get(0).getId());
+		assertEquals("Wrong meeting", meet2Id, meets.get(1).getId());
+		meets = cmi.getNextMeetings(10);
+		assertEquals("Wrong number of meetings", 3, meets.size());
+		assertEquals("Wrong meeting", meet3Id, meets.get(2).getId());
+	}
+
+	@Test
+	public void mixedTimeZonesTest() {
+		TimeZone saved = TimeZone.getDefault();
+		TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+		try {
+			setUpContacts();
+			ContactManagerImpl cmi = (ContactManagerImpl)mgr;
+			Set<Contact> guests = mgr.getContacts(moe.getId());
+			// 00:15 on 30 December in the default zone, 14 hours ahead of UTC
+			long now = new GregorianCalendar(2014, 11, 30, 0, 15).getTimeInMillis();
+			ContactManagerImpl.todayProvider = new FakeCurrentDayProvider(at("UTC", now));
+			// filed under 30, 28 and 29 December, in that order of time
+			int kiritimati = mgr.addFutureMeeting(guests,
+					at("Pacific/Kiritimati", now + 15 * 60 * 1000));
+			int samoa = mgr.addFutureMeeting(guests,
+					at("Pacific/Pago_Pago", now + 30 * 60 * 1000));
+			int tokyo = mgr.addFutureMeeting(guests,
+					at("Asia/Tokyo", now + 45 * 60 * 1000));
+			assertEquals("Wrong next meetings", Arrays.asList(kiritimati, samoa),
+					idsOf(cmi.getNextMeetings(2)));
+			assertEquals("Wrong next meetings", Arrays.asList(kiritimati, samoa, tokyo),
+					idsOf(cmi.getNextMeetings(10)));
+			assertEquals("Wrong meetings between", Arrays.asList(kiritimati, samoa, tokyo),
+					idsOf(cmi.getMeetingsBetween(new GregorianCalendar(2014, 11, 28),
+							new GregorianCalendar(2014, 11, 30))));
+			assertEquals("Wrong day", Arrays.asList(samoa), idsOf(
+					mgr.getFutureMeetingList(new GregorianCalendar(2014, 11, 28))));
+		} finally {
+			TimeZone.setDefault(saved);
+		}
+	}
+
+	/**
+	 * Returns a date in a time zone.
+	 *
+	 * @param zone the id of the time zone.
+	 * @param time the date, in milliseconds since the epoch.
+	 * @return the date.
+	 */
+	private static Calendar at(String zone, long time) {
+		Calendar date = new GregorianCalendar(TimeZone.getTimeZone(zone));
+		date.setTimeInMillis(time);
+		return date;
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void pastMeetingInFutureTest() {
+		setUpContacts();
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId()), new GregorianCalendar(2100, 01, 27),
+				"Bogus notes");
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void pastMeetingEmptyGuests() {
+		setUpContacts();
+		mgr.addNewPastMeeting(new HashSet<Contact>(), new GregorianCalendar(1963, 01, 27),
+				"Bogus notes");
+	}
+
+	@Test(expected=NullPointerException.class)
+	public void pastMeetingNullNotes() {
+		setUpContacts();
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId()), new GregorianCalendar(1963, 01, 27), null);
+	}
+
+	@Test(expected=NullPointerException.class)
+	public void pastMeetingNullGuests() {
+		setUpContacts();
+		mgr.addNewPastMeeting(null,	new GregorianCalendar(1963, 01, 27), "Bogus notes");
+	}
+
+	@Test(expected=NullPointerException.class)
+	public void pastMeetingNullDate() {
+		setUpContacts();
+		mgr.addNewPastMeeting(new HashSet<Contact>(), null, "Bogus notes");
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void pastMeetingUnknownGuest() {
+		setUpContacts();
+		Contact wrongContact = new ContactImpl("Charlie Chaplin", "The Tramp");
+		Set<Contact> guests = new HashSet<Contact>();
+		guests.add(moe);
+		guests.add(wrongContact);
+		mgr.addFutureMeeting(guests, new GregorianCalendar(1963, 01, 27));
+	}
+	
+	@Test
+	public void addPastMeetingTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(1963, 01, 27);
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		mgr.addNewPastMeeting(guests, date, "Nothing happened");
+		int meetId = mgr.getPastMeetingList(moe).get(0).getId();
+		PastMeeting meet = (PastMeeting)mgr.getMeeting(meetId);
+		assertNotNull("Expected a meeting", meet);
+		assertEquals("Wrong guest list", guests, meet.getContacts());
+		assertEquals("Wrong date", date, meet.getDate());
+		assertEquals("Wrong notes", "Nothing happened", meet.getNotes());
+		assertEquals("Expected to find", meet, mgr.getMeeting(meetId));
+	}
+	
+	@Test
+	public void addSeveralPastMeetingsTest() {
+		setUpContacts();
+		
+		Calendar date = new GregorianCalendar(1963, 01, 27);
+		Calendar otherDate = new GregorianCalendar(1968, 02, 12);
+		Set<Contact> guests1 = mgr.getContacts(moe.getId());
+		Set<Contact> guests2 = mgr.getContacts(larry.getId());
+		Set<Contact> guests3 = mgr.getContacts(curly.getId());
+
+		mgr.addNewPastMeeting(guests1, date, "Moe got bored");
+		mgr.addNewPastMeeting(guests2, date, "Moe hit Larry");
+		mgr.addNewPastMeeting(guests3, otherDate, "Moe got bored again");
+		int meet1Id = mgr.getPastMeetingList(moe).get(0).getId();
+		int meet2Id = mgr.getPastMeetingList(larry).get(0).getId();
+		int meet3Id = mgr.getPastMeetingList(curly).get(0).getId();
+	
+		PastMeeting meet1 = mgr.getPastMeeting(meet1Id);
+		assertNotNull("Expected meeting", meet1);
+		assertEquals("Wrong guest list", guests1, meet1.getContacts());
+		assertEquals("Wrong date list", date, meet1.getDate());
+		PastMeeting meet2 = mgr.getPastMeeting(meet2Id);
+		assertNotNull("Expected meeting", meet2);
+		assertEquals("Wrong guest list", guests2, meet2.getContacts());
+		assertEquals("Wrong date list", date, meet2.getDate());
+		PastMeeting meet3 = mgr.getPastMeeting(meet3Id);
+		assertNotNull("Expected meeting", meet3);
+		assertEquals("Wrong guest list", guests3, meet3.getContacts());
+		assertEquals("Wrong date list", otherDate, meet3.getDate());
+
+		assertEquals("Find mismatch",
+				mgr.getPastMeeting(meet1Id), mgr.getMeeting(meet1Id));
+		assertEquals("Find mismatch",
+				mgr.getPastMeeting(meet2Id), mgr.getMeeting(meet2Id));
+		assertEquals("Find mismatch",
+				mgr.getPastMeeting(meet3Id), mgr.getMeeting(meet3Id));
+		
+		Meeting[] expectedMeetsMoe = {meet1};
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(Arrays.asList(expectedMeetsMoe)),
+				new HashSet<Meeting>(mgr.getPastMeetingList(moe)));
+		Meeting[] expectedMeetsLarry = {meet2};
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(Arrays.asList(expectedMeetsLarry)),
+				new HashSet<Meeting>(mgr.getPastMeetingList(larry)));
+		Meeting[] expectedMeetsCurly = {meet3};
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(Arrays.asList(expectedMeetsCurly)),
+				new HashSet<Meeting>(mgr.getPastMeetingList(curly)));
+
+		assertEquals("Wrong meeting list",
+				new HashSet<Meeting>(),
+				new HashSet<Meeting>(mgr.getFutureMeetingList(moe)));
+	}
+
+	@Test
+	public void addNotesToPastMeetingTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(1963, 01, 27);
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		mgr.addNewPastMeeting(guests, date, "Nothing happened");
+		int meetId = mgr.getPastMeetingList(moe).get(0).getId();
+		mgr.addMeetingNotes(meetId, "Really, nothing happened");
+		PastMeeting meet = (PastMeeting)mgr.getMeeting(meetId);
+		assertNotNull("Expected a meeting", meet);
+		assertEquals("Wrong id", meetId, meet.getId());
+		assertEquals("Wrong guest list", guests, meet.getContacts());
+		assertEquals("Wrong date", date, meet.getDate());
+		assertEquals("Wrong notes", "Nothing happened\nReally, nothing happened",
+				meet.getNotes());
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void addNotesToFutureMeetingTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2100, 01, 27);
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		int meetId = mgr.addFutureMeeting(guests, date);
+		mgr.addMeetingNotes(meetId, "Really, nothing happened");
+	}
+
+	@Test
+	public void addNotesToPastFutureMeetingTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		int meetId = mgr.addFutureMeeting(guests, date);
+		// Time machine!
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		String text = "Can't remember, long ago";
+		mgr.addMeetingNotes(meetId, text);
+		PastMeeting meet = mgr.getPastMeeting(meetId);
+		assertNotNull("Expected a meeting", meet);
+		assertEquals("Wrong id", meetId, meet.getId());
+		assertEquals("Wrong guest list", guests, meet.getContacts());
+		assertEquals("Wrong date", date, meet.getDate());
+		assertEquals("Wrong notes", text, meet.getNotes());
+	}
+	
+	@Test
+	public void meetingListsAfterAddingNotesTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		Set<Contact> guests = mgr.getContacts(moe.getId(), larry.getId());
+		int meetId = mgr.addFutureMeeting(guests, date);
+		assertEquals("Wrong future list", 1, mgr.getFutureMeetingList(larry).size());
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		mgr.addMeetingNotes(meetId, "Done");
+		PastMeeting meet = mgr.getPastMeeting(meetId);
+		assertEquals("Wrong future list", 0, mgr.getFutureMeetingList(larry).size());
+		assertEquals("Wrong past list", 1, mgr.getPastMeetingList(moe).size());
+		assertEquals("Wrong past meeting", meet, mgr.getPastMeetingList(larry).get(0));
+		assertEquals("Wrong past list", 0, mgr.getPastMeetingList(curly).size());
+	}
+
+	@Test
+	public void meetingListsSortedTest() {
+		setUpContacts();
+		Set<Contact> guests = mgr.getContacts(moe.getId());
+		int meet1Id = mgr.addFutureMeeting(guests, new GregorianCalendar(2021, 05, 01));
+		int meet2Id = mgr.addFutureMeeting(guests, new GregorianCalendar(2020, 01, 27));
+		int meet3Id = mgr.addFutureMeeting(guests, new GregorianCalendar(2020, 02, 12));
+		mgr.addNewPastMeeting(guests, new GregorianCalendar(2014, 10, 11), "Later");
+		mgr.addNewPastMeeting(guests, new GregorianCalendar(2013, 10, 11), "Earlier");
+		List<Meeting> future = mgr.getFutureMeetingList(moe);
+		assertEquals("Wrong number of meetings", 3, future.size());
+		assertEquals("Wrong order", meet2Id, future.get(0).getId());
+		assertEquals("Wrong order", meet3Id, future.get(1).getId());
+		assertEquals("Wrong order", meet1Id, future.get(2).getId());
+		List<PastMeeting> past = mgr.getPastMeetingList(moe);
+		assertEquals("Wrong number of meetings", 2, past.size());
+		assertEquals("Wrong order", "Earlier", past.get(0).getNotes());
+		assertEquals("Wrong order", "Later", past.get(1).getNotes());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void pastMeetingListUnknownContactTest() {
+		setUpContacts();
+		mgr.getPastMeetingList(new ContactImpl("Charlie Chaplin", "The Tramp"));
+	}
+
+	@Test
+	public void flushReadKeepsIdsTest() {
+		setUpContacts();
+		mgr.addNewContact("Moe Stooge Jr", "Not the smart one");
+		Contact junior = mgr.getContacts("Jr").iterator().next();
+		Calendar date = new GregorianCalendar(1963, 01, 27);
+		Calendar otherDate = new GregorianCalendar(2030, 02, 12);
+		mgr.addNewPastMeeting(mgr.getContacts(junior.getId()), date, "Line 1\nLine 2");
+		int pastId = mgr.getPastMeetingList(junior).get(0).getId();
+		int futureId = mgr.addFutureMeeting(
+				mgr.getContacts(moe.getId(), larry.getId()), otherDate);
+		mgr.flush();
+		ContactManager mgr2 = ContactManagerImpl.read();
+		Contact junior2 = mgr2.getContacts(junior.getId()).iterator().next();
+		assertEquals("Wrong contact name", "Moe Stooge Jr", junior2.getName());
+		assertEquals("Wrong contact notes", "Not the smart one", junior2.getNotes());
+		PastMeeting pm = mgr2.getPastMeeting(pastId);
+		assertEquals("Wrong date", date, pm.getDate());
+		assertEquals("Wrong notes", "Line 1\nLine 2", pm.getNotes());
+		assertEquals("Wrong guests", mgr2.getContacts(junior.getId()), pm.getContacts());
+		FutureMeeting fm = mgr2.getFutureMeeting(futureId);
+		assertEquals("Wrong date", otherDate, fm.getDate());
+		assertEquals("Wrong guests", mgr2.getContacts(moe.getId(), larry.getId()),
+				fm.getContacts());
+		mgr2.addNewContact("Shemp Stooge", "The other one");
+		Contact shemp = mgr2.getContacts("Shemp").iterator().next();
+		assertTrue("Id reused", shemp.getId() > junior.getId());
+	}
+
+	@Test
+	public void concurrentAddsTest() throws InterruptedException {
+		setUpContacts();
+		final Set<Contact> guests = mgr.getContacts(moe.getId());
+		final Calendar date = new GregorianCalendar(2020, 01, 27);
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final int n = t;
+			threads[t] = new Thread() {
+				public void run() {
+					for (int i = 0; i < 100; i++) {
+						mgr.addNewContact("Thread " + n + " contact " + i, "");
+						mgr.addFutureMeeting(guests, date);
+						mgr.getFutureMeetingList(moe);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread t: threads) {
+			t.join();
+		}
+		assertEquals("Lost contacts", 803, mgr.getContacts("").size());
+		assertEquals("Lost meetings", 800, mgr.getFutureMeetingList(moe).size());
+		assertEquals("Lost meetings", 800, mgr.getFutureMeetingList(date).size());
+	}
+
+	@Test
+	public void snapshotTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		int id = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId()),
+				new GregorianCalendar(2013, 01, 27), "Went well");
+		int pastId = mgr.getPastMeetingList(moe).get(0).getId();
+		ContactManagerImpl snapshot = ((ContactManagerImpl)mgr).snapshot();
+		assertSame("Snapshot not kept", snapshot, ((ContactManagerImpl)mgr).snapshot());
+		mgr.addNewContact("Shemp Stooge", "The other one");
+		mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		mgr.addMeetingNotes(pastId, "Went badly");
+		moe.addNotes("Not that smart");
+		assertEquals("Snapshot changed", 3, snapshot.getContacts("").size());
+		assertEquals("Snapshot changed", 0, snapshot.getContacts("Shemp").size());
+		assertEquals("Snapshot changed", "The smart one",
+				snapshot.getContacts("Moe").iterator().next().getNotes());
+		assertEquals("Snapshot changed", 1, snapshot.getFutureMeetingList(moe).size());
+		assertEquals("Snapshot changed", 1, snapshot.getFutureMeetingList(date).size());
+		assertNotNull("Snapshot changed", snapshot.getFutureMeeting(id));
+		assertEquals("Snapshot changed", "Went well",
+				snapshot.getPastMeeting(pastId).getNotes());
+		assertNotSame("Snapshot not retaken", snapshot,
+				((ContactManagerImpl)mgr).snapshot());
+		assertEquals("Wrong contacts", 4,
+				((ContactManagerImpl)mgr).snapshot().getContacts("").size());
+	}
+
+	@Test
+	public void meetingNotesAddedInPlaceTest() {
+		setUpContacts();
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId()),
+				new GregorianCalendar(2013, 01, 27), "Went well");
+		PastMeeting pm = mgr.getPastMeetingList(moe).get(0);
+		mgr.addMeetingNotes(pm.getId(), "Went on too long");
+		assertSame("Meeting replaced", pm, mgr.getPastMeeting(pm.getId()));
+		assertEquals("Wrong notes", "Went well\nWent on too long", pm.getNotes());
+		assertSame("Index not up to date", pm, mgr.getPastMeetingList(moe).get(0));
+	}
+
+	@Test
+	public void guestSetsSharedTest() {
+		setUpContacts();
+		Set<Contact> guests = new HashSet<Contact>(Arrays.asList(moe, larry));
+		int id1 = mgr.addFutureMeeting(guests, new GregorianCalendar(2020, 01, 27));
+		int id2 = mgr.addFutureMeeting(new HashSet<Contact>(guests),
+				new GregorianCalendar(2020, 02, 12));
+		guests.add(curly);
+		Set<Contact> guests1 = mgr.getMeeting(id1).getContacts();
+		assertEquals("Guests changed by caller", 2, guests1.size());
+		assertSame("Guest sets not shared", guests1, mgr.getMeeting(id2).getContacts());
+	}
+
+	@Test
+	public void notesOffHeapTest() {
+		NotesStore store = new NotesStore();
+		ContactManagerImpl.notesStore = store;
+		try {
+			setUpContacts();
+			mgr.addNewPastMeeting(mgr.getContacts(moe.getId()),
+					new GregorianCalendar(2013, 01, 27), "Went well");
+			PastMeeting pm = mgr.getPastMeetingList(moe).get(0);
+			mgr.addMeetingNotes(pm.getId(), "Went on too long");
+			moe.addNotes("Bring coffee");
+			assertEquals("Wrong notes", "Went well\nWent on too long",
+					mgr.getPastMeeting(pm.getId()).getNotes());
+			assertEquals("Wrong notes", "The smart one\nBring coffee", moe.getNotes());
+			assertTrue("Notes not in the store", store.size() > 0);
+		} finally {
+			ContactManagerImpl.notesStore = null;
+		}
+	}
+
+	@Test
+	public void snapshotsShareNotesTest() {
+		NotesStore store = new NotesStore();
+		ContactManagerImpl.notesStore = store;
+		try {
+			setUpContacts();
+			mgr.addNewPastMeeting(mgr.getContacts(moe.getId()),
+					new GregorianCalendar(2013, 01, 27), "Went well");
+			ContactManagerImpl impl = (ContactManagerImpl)mgr;
+			for (int i = 0; i < 50; i++) {
+				// a change drops the snapshot, so the next one is a new one
+				mgr.addNewContact("Shemp Stooge " + i, "");
+				long size = store.size();
+				ContactManagerImpl s = impl.snapshot();
+				assertEquals("Notes copied to the store", size, store.size());
+				assertEquals("Wrong notes", "The smart one",
+						s.getContact(moe.getId()).getNotes());
+			}
+		} finally {
+			ContactManagerImpl.notesStore = null;
+		}
+	}
+
+	@Test
+	public void futureMeetingMigratedTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		int id = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		PastMeeting pm = mgr.getPastMeeting(id);
+		assertNotNull("Meeting not moved to the past", pm);
+		assertEquals("Wrong notes", "", pm.getNotes());
+		assertEquals("Wrong date", date, pm.getDate());
+		assertEquals("Wrong past meetings", 1, mgr.getPastMeetingList(moe).size());
+		assertEquals("Wrong future meetings", 0, mgr.getFutureMeetingList(moe).size());
+		mgr.addMeetingNotes(id, "Went well");
+		assertEquals("Wrong notes", "Went well", mgr.getPastMeeting(id).getNotes());
+	}
+
+	@Test
+	public void dueMeetingQueriedWithoutLockTest() throws Exception {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		final int id = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		final CountDownLatch locked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		Thread writer = new Thread() {
+			public void run() {
+				synchronized (mgr) {
+					locked.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+					}
+				}
+			}
+		};
+		writer.start();
+		locked.await();
+		FutureTask<PastMeeting> query = new FutureTask<PastMeeting>(
+				() -> mgr.getPastMeetingList(moe).get(0));
+		new Thread(query).start();
+		PastMeeting pm;
+		try {
+			pm = query.get(10, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+			writer.join();
+		}
+		assertEquals("Wrong meeting", id, pm.getId());
+		assertEquals("Wrong notes", "", pm.getNotes());
+		assertSame("Not the same meeting", pm, mgr.getPastMeeting(id));
+		// adding notes moves it to the past meetings, as it was found
+		mgr.addMeetingNotes(id, "Went well");
+		assertSame("Meeting replaced", pm, mgr.getPastMeeting(id));
+		assertEquals("Wrong notes", "Went well", pm.getNotes());
+	}
+
+	@Test
+	public void snapshotOfDueMeetingTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		int id = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		ContactManagerImpl snapshot = ((ContactManagerImpl)mgr).snapshot();
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		assertEquals("Wrong notes", "", snapshot.getPastMeeting(id).getNotes());
+		mgr.addMeetingNotes(id, "Added after snapshot");
+		assertEquals("Snapshot changed", "", snapshot.getPastMeeting(id).getNotes());
+		assertEquals("Wrong notes", "Added after snapshot",
+				mgr.getPastMeeting(id).getNotes());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void getFutureMeetingAfterItsDateTest() {
+		setUpContacts();
+		int id = mgr.addFutureMeeting(mgr.getContacts(moe.getId()),
+				new GregorianCalendar(2020, 01, 27));
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		mgr.getFutureMeeting(id);
+	}
+
+	@Test
+	public void scheduledMigrationTest() throws InterruptedException {
+		setUpContacts();
+		final Calendar start = new GregorianCalendar(2014, 11, 30, 14, 0);
+		final AtomicLong time = new AtomicLong(start.getTimeInMillis());
+		final CountDownLatch due = new CountDownLatch(1);
+		ContactManagerImpl.todayProvider = new CurrentDateProvider() {
+			public Calendar today() {
+				Calendar c = new GregorianCalendar();
+				c.setTimeInMillis(now());
+				return c;
+			}
+
+			public long now() {
+				long t = time.get();
+				if (t > start.getTimeInMillis()) {
+					due.countDown();
+				}
+				return t;
+			}
+		};
+		Calendar date = (Calendar)start.clone();
+		date.add(Calendar.MILLISECOND, 50);
+		int id = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		((ContactManagerImpl)mgr).scheduleMigration();
+		time.addAndGet(60 * 1000);
+		// the migrator reads the clock with the monitor held, and releases
+		// it only once the meeting is moved
+		assertTrue("Migrator not run", due.await(10, TimeUnit.SECONDS));
+		synchronized (mgr) {
+			// futureMeetings() doesn't move due meetings itself
+			assertTrue("Meeting not moved to the past",
+					((ContactManagerImpl)mgr).futureMeetings().isEmpty());
+		}
+		assertNotNull("Meeting not moved to the past", mgr.getPastMeeting(id));
+	}
+
+	@Test
+	public void closeTest() throws InterruptedException {
+		setUpContacts();
+		mgr.addFutureMeeting(mgr.getContacts(moe.getId()),
+				new GregorianCalendar(2020, 01, 27));
+		((ContactManagerImpl)mgr).scheduleMigration();
+		assertFalse("No migration thread", threads("ContactManager migrator").isEmpty());
+		((ContactManagerImpl)mgr).close();
+		for (Thread t: threads("ContactManager migrator")) {
+			t.join(10000);
+			assertFalse("Migration thread not stopped", t.isAlive());
+		}
+	}
+
+	/**
+	 * Returns the live threads with a name.
+	 *
+	 * @param name the name of the threads.
+	 * @return the threads.
+	 */
+	private static List<Thread> threads(String name) {
+		List<Thread> found = new ArrayList<Thread>();
+		for (Thread t: Thread.getAllStackTraces().keySet()) {
+			if (t.getName().equals(name)) {
+				found.add(t);
+			}
+		}
+		return found;
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void snapshotReadOnlyTest() {
+		setUpContacts();
+		((ContactManagerImpl)mgr).snapshot().addNewContact("Shemp Stooge", "The other one");
+	}
+
+	/**
+	 * This test fails because we can't implement an equals() method in
+	 * ContactManagerImpl because the needed methods are not available in the
+	 * interface. We'd need methods to obtain all the contacts as well as all
+	 * the PastMeetings and all the FutureMeetings.
+	 */
+	@Test
+	public void flushReadTest() {
+		setUpContacts();
+		Calendar date = new GregorianCalendar(1963, 01, 27);
+		Calendar otherDate = new GregorianCalendar(2030, 02, 12);
+		Set<Contact> guests1 = mgr.getContacts(moe.getId());
+		Set<Contact> guests2 = mgr.getContacts(moe.getId(), larry.getId());
+		Set<Contact> guests3 = mgr.getContacts(moe.getId());
+
+		mgr.addNewPastMeeting(guests1, date, "Moe got bored");
+		mgr.addNewPastMeeting(guests2, date, "Moe hit Larry");
+		mgr.addFutureMeeting(guests3, otherDate);
+		mgr.flush();
+		ContactManager mgr2 = ContactManagerImpl.read();
+		assertEquals("Data read does not match original", mgr, mgr2);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContactNameIndexTest {
+	private ContactNameIndex index;
+	private Contact moe, larry, curly, shemp;
+
+	@Before
+	public void setUp() {
+		index = new ContactNameIndex();
+		moe = new ContactImpl("Moe Stooge", "");
+		larry = new ContactImpl("Larry Stooge", "");
+		curly = new ContactImpl("Curly Stooge", "");
+		shemp = new ContactImpl("Shemp", "");
+		for (Contact c: Arrays.asList(moe, larry, curly, shemp)) {
+			index.add(c);
+		}
+	}
+
+	private static Set<Contact> setOf(Contact... contacts) {
+		return new HashSet<Contact>(Arrays.asList(contacts));
+	}
+
+	@Test
+	public void testShortStrings() {
+		assertEquals("Wrong match for 1 char", setOf(larry, curly), index.containing("r"));
+		assertEquals("Wrong match for 2 chars", setOf(larry), index.containing("rr"));
+		assertEquals("Wrong match for 3 chars", setOf(moe), index.containing("Moe"));
+		assertEquals("Expected no match", setOf(), index.containing("z"));
+	}
+
+	@Test
+	public void testLongStrings() {
+		assertEquals("Wrong match", setOf(moe, larry, curly), index.containing("Stooge"));
+		assertEquals("Wrong match", setOf(curly), index.containing("ly Sto"));
+		assertEquals("Expected no match", setOf(), index.containing("Moe Stoogee"));
+		// every trigram is present, but not in that order
+		assertEquals("Expected no match", setOf(), index.containing("toogStoo"));
+	}
+
+	@Test
+	public void testSameName() {
+		Contact otherMoe = new ContactImpl("Moe Stooge", "Another one");
+		index.add(otherMoe);
+		assertEquals("Wrong match", setOf(moe, otherMoe), index.containing("Moe S"));
+		assertEquals("Wrong match", setOf(moe, otherMoe), index.startingWith("Mo"));
+	}
+
+	@Test
+	public void testPrefix() {
+		assertEquals("Wrong match", setOf(larry), index.startingWith("L"));
+		assertEquals("Wrong match", setOf(moe, larry, curly, shemp), index.startingWith(""));
+		assertEquals("Expected no match", setOf(), index.startingWith("Stooge"));
+		assertEquals("Wrong match", setOf(shemp), index.startingWith("Shemp"));
+	}
+}
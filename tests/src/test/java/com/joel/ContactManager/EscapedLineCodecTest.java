@@ -0,0 +1,49 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class EscapedLineCodecTest {
+
+	private static String escape(String s) throws IOException {
+		StringWriter w = new StringWriter();
+		EscapedLineCodec.writeEscaped(w, s);
+		return w.toString();
+	}
+
+	private static String unescape(String s) throws IOException {
+		return EscapedLineCodec.readUnescaped(new BufferedReader(new StringReader(s)));
+	}
+
+	@Test
+	public void testEscape() throws IOException {
+		assertEquals("Wrong plain string", "Moe\n", escape("Moe"));
+		assertEquals("Wrong empty string", "\n", escape(""));
+		assertEquals("Wrong newline", "a\\nb\n", escape("a\nb"));
+		assertEquals("Wrong backslash", "a\\\\nb\n", escape("a\\nb"));
+		assertEquals("Wrong trailing newline", "a\\n\\n\n", escape("a\n\n"));
+	}
+
+	@Test
+	public void testUnescape() throws IOException {
+		assertEquals("Wrong plain string", "Moe", unescape("Moe\n"));
+		assertEquals("Wrong empty string", "", unescape("\n"));
+		assertEquals("Wrong newline", "a\nb", unescape("a\\nb\n"));
+		assertEquals("Wrong backslash", "a\\nb", unescape("a\\\\nb\n"));
+		assertEquals("Wrong trailing backslash", "a\\", unescape("a\\\n"));
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		String[] strings = {"", "\\", "\n", "\\n", "\n\\", "Moe hit Larry\\\nagain\n"};
+		for (String s: strings) {
+			assertEquals("Round trip failed", s, unescape(escape(s)));
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.joel.ContactManager;
+
+import java.util.Calendar;
+
+class FakeCurrentDayProvider implements CurrentDateProvider {
+	Calendar date;
+	
+	public FakeCurrentDayProvider(Calendar date) {
+		this.date = date;
+	}
+	
+	public Calendar today() {
+		return date;
+	}
+	
+}
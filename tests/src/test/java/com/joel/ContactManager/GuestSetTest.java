@@ -0,0 +1,92 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class GuestSetTest {
+	private Contact moe, larry, curly;
+	private Set<Contact> guests;
+
+	@Before
+	public void setUp() {
+		moe = new ContactImpl("Moe", "");
+		larry = new ContactImpl("Larry", "");
+		curly = new ContactImpl("Curly", "");
+		guests = new HashSet<Contact>(Arrays.asList(curly, moe));
+	}
+
+	@Test
+	public void testContains() {
+		Set<Contact> set = GuestSet.of(guests);
+		assertEquals("Wrong size", 2, set.size());
+		assertTrue("Expected Moe", set.contains(moe));
+		assertTrue("Expected Curly", set.contains(curly));
+		assertFalse("Unexpected Larry", set.contains(larry));
+		assertFalse("Unexpected contact with Moe's id",
+				set.contains(new ContactImpl("Moe", "", moe.getId())));
+		assertFalse("Unexpected string", set.contains("Moe"));
+	}
+
+	@Test
+	public void testOrderedById() {
+		Iterator<Contact> i = GuestSet.of(guests).iterator();
+		assertSame("Wrong first guest", moe, i.next());
+		assertSame("Wrong second guest", curly, i.next());
+		assertFalse("Expected no more guests", i.hasNext());
+	}
+
+	@Test
+	public void testEquals() {
+		GuestSet set = GuestSet.of(guests);
+		assertEquals("Expected equal sets", guests, set);
+		assertEquals("Expected equal sets", set, guests);
+		assertEquals("Wrong hash code", guests.hashCode(), set.hashCode());
+		assertEquals("Expected equal sets", set, GuestSet.of(new HashSet<Contact>(guests)));
+		assertNotEquals("Expected different sets", set,
+				GuestSet.of(new HashSet<Contact>(Arrays.asList(moe, larry))));
+		assertSame("Expected the same set", set, GuestSet.of(set));
+	}
+
+	@Test
+	public void testNotChangedByCaller() {
+		Set<Contact> set = GuestSet.of(guests);
+		guests.add(larry);
+		assertFalse("Unexpected Larry", set.contains(larry));
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void testImmutable() {
+		GuestSet.of(guests).add(larry);
+	}
+
+	@Test
+	public void testLargeSets() {
+		// ids close together go in a bitset, ids far apart in an int[]
+		for (int step: new int[] {1, 3, 300}) {
+			Set<Contact> many = new HashSet<Contact>();
+			Contact[] byId = new Contact[200];
+			for (int i = 0; i < 200; i++) {
+				byId[i] = new ContactImpl("Guest " + i, "", 10000 + i * step);
+				many.add(byId[i]);
+			}
+			GuestSet set = GuestSet.of(many);
+			assertEquals("Wrong size", 200, set.size());
+			for (Contact c: byId) {
+				assertTrue("Expected guest " + c.getId(), set.contains(c));
+				assertTrue("Expected id " + c.getId(), set.containsId(c.getId()));
+			}
+			assertFalse("Unexpected contact with the same id",
+					set.contains(new ContactImpl("Guest", "", byId[150].getId())));
+			assertFalse("Unexpected id", set.containsId(9999));
+			assertFalse("Unexpected id", set.containsId(10000 + 200 * step));
+			assertFalse("Unexpected Moe", set.contains(moe));
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+	@Test
+	public void testBuckets() {
+		for (long v: new long[] {0, 1, 31, 32, 63, 64, 65, 1000, 123456789,
+				Long.MAX_VALUE}) {
+			int b = Histogram.bucket(v);
+			assertTrue("Value below its bucket: " + v, Histogram.lowestValue(b) <= v);
+			assertTrue("Value above its bucket: " + v, b + 1 == 1888
+					|| Histogram.lowestValue(b + 1) > v);
+		}
+		assertEquals("Small values not exact", 31, Histogram.bucket(31));
+		assertEquals("Last bucket wrong", 1887, Histogram.bucket(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testPercentiles() {
+		Histogram h = new Histogram();
+		for (int i = 1; i <= 100000; i++) {
+			h.record(i);
+		}
+		assertEquals("Wrong count", 100000, h.count());
+		assertEquals("Wrong mean", 50000.5, h.mean(), 0.001);
+		assertEquals("Wrong max", 100000, h.max());
+		assertEquals("Wrong median", 50000, h.valueAtPercentile(50), 50000 * 0.04);
+		assertEquals("Wrong 99th", 99000, h.valueAtPercentile(99), 99000 * 0.04);
+		assertEquals("Wrong 100th", 100000, h.valueAtPercentile(100));
+	}
+
+	@Test
+	public void testPrecision() {
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++) {
+			long v = 1 + (random.nextLong() >>> (1 + random.nextInt(60)));
+			// a larger value, so that the median isn't capped by the max
+			Histogram h = new Histogram();
+			h.record(v);
+			h.record(v);
+			h.record(Long.MAX_VALUE);
+			long p = h.valueAtPercentile(50);
+			assertTrue("Too far from " + v + ": " + p,
+					p >= v && p - v <= v / 32);
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		Histogram h = new Histogram();
+		assertEquals("Wrong count", 0, h.count());
+		assertEquals("Wrong mean", 0, h.mean(), 0);
+		assertEquals("Wrong median", 0, h.valueAtPercentile(50));
+	}
+
+	@Test
+	public void testNegative() {
+		Histogram h = new Histogram();
+		h.record(-5);
+		assertEquals("Negative not taken as 0", 0, h.max());
+		assertEquals("Wrong count", 1, h.count());
+	}
+}
@@ -0,0 +1,97 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdTableTest {
+	private IdTable<String> table;
+
+	@Before
+	public void setUp() {
+		table = new IdTable<String>(0);
+	}
+
+	@Test
+	public void testPutGetRemove() {
+		assertNull("Expected no value", table.put(3, "three"));
+		assertEquals("Wrong value", "three", table.get(3));
+		assertEquals("Wrong old value", "three", table.put(3, "THREE"));
+		assertEquals("Wrong size", 1, table.size());
+		assertEquals("Wrong removed value", "THREE", table.remove(3));
+		assertTrue("Expected empty table", table.isEmpty());
+		assertNull("Expected no value", table.get(3));
+	}
+
+	@Test
+	public void testIdsOutOfRange() {
+		assertNull("Expected no value", table.get(-1));
+		assertNull("Expected no value", table.get(1000000));
+		assertNull("Expected no value", table.remove(1000000));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeId() {
+		table.put(-1, "minus one");
+	}
+
+	@Test
+	public void testGrowKeepsValues() {
+		for (int i = 1; i <= 1000; i++) {
+			table.put(i, "" + i);
+		}
+		assertEquals("Wrong size", 1000, table.size());
+		for (int i = 1; i <= 1000; i++) {
+			assertEquals("Wrong value", "" + i, table.get(i));
+		}
+	}
+
+	@Test
+	public void testValuesInIdOrder() {
+		table.put(40, "b");
+		table.put(2, "a");
+		table.put(7, "c");
+		table.remove(7);
+		List<String> values = new ArrayList<String>(table.values());
+		assertEquals("Wrong values", Arrays.asList("a", "b"), values);
+		assertEquals("Wrong size", 2, table.values().size());
+	}
+
+	@Test
+	public void testCopy() {
+		table.put(2, "a");
+		IdTable<String> copy = new IdTable<String>(table);
+		table.put(3, "b");
+		assertEquals("Wrong value", "a", copy.get(2));
+		assertNull("Copy changed", copy.get(3));
+		assertEquals("Wrong size", 1, copy.size());
+	}
+
+	@Test
+	public void testCopiesChangedApart() {
+		for (int i = 0; i < 1000; i++) {
+			table.put(i, "" + i);
+		}
+		IdTable<String> copy = new IdTable<String>(table);
+		table.put(10, "ten");
+		table.remove(600);
+		copy.put(11, "eleven");
+		copy.put(5000, "5000");
+		IdTable<String> copy2 = new IdTable<String>(table);
+		table.put(12, "twelve");
+		assertEquals("Copy changed", "10", copy.get(10));
+		assertEquals("Copy changed", "600", copy.get(600));
+		assertEquals("Table changed", "11", table.get(11));
+		assertNull("Table changed", table.get(5000));
+		assertEquals("Second copy changed", "12", copy2.get(12));
+		assertEquals("Wrong value", "ten", copy2.get(10));
+		assertEquals("Wrong size", 999, table.size());
+		assertEquals("Wrong size", 1001, copy.size());
+		assertEquals("Wrong values", 1001, new ArrayList<String>(copy.values()).size());
+	}
+}
@@ -0,0 +1,171 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.joel.ContactManager.ContactManagerMetrics.Operation;
+
+public class InstrumentedContactManagerTest {
+	private File snapshot;
+	private File journal;
+	private SnapshotCodec savedCodec;
+	private ContactManagerMetrics savedMetrics;
+	private RecordingMetrics metrics;
+	private ContactManager mgr;
+
+	@Before
+	public void setUp() throws IOException {
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2014,  11, 30));
+		snapshot = File.createTempFile("contacts", ".bin");
+		journal = new File(snapshot.getPath() + ".journal");
+		savedCodec = ContactManagerImpl.snapshotCodec;
+		savedMetrics = ContactManagerImpl.metrics;
+		ContactManagerImpl.snapshotCodec = new BinarySnapshotCodec(snapshot.getPath());
+		metrics = new RecordingMetrics();
+		ContactManagerImpl.metrics = metrics;
+		mgr = new InstrumentedContactManager(new ContactManagerImpl(), metrics);
+		mgr.addNewContact("Moe Stooge", "The smart one");
+		mgr.addNewContact("Larry Stooge", "The crazy one");
+	}
+
+	@After
+	public void tearDown() {
+		ContactManagerImpl.snapshotCodec = savedCodec;
+		ContactManagerImpl.metrics = savedMetrics;
+		snapshot.delete();
+		journal.delete();
+	}
+
+	@Test
+	public void testCallsCounted() {
+		mgr.getContacts("Stooge");
+		mgr.getContacts("Moe");
+		mgr.getContacts("Curly");
+		assertEquals("Wrong calls", 2, metrics.calls(Operation.ADD_NEW_CONTACT));
+		assertEquals("Wrong calls", 3, metrics.calls(Operation.GET_CONTACTS_BY_NAME));
+		assertEquals("Wrong calls", 0, metrics.calls(Operation.GET_CONTACTS_BY_IDS));
+		assertEquals("No results for void", 0,
+				metrics.results(Operation.ADD_NEW_CONTACT).count());
+		Histogram results = metrics.results(Operation.GET_CONTACTS_BY_NAME);
+		assertEquals("Wrong result count", 3, results.count());
+		assertEquals("Wrong max results", 2, results.max());
+		assertEquals("Wrong mean results", 1, results.mean(), 0.001);
+	}
+
+	@Test
+	public void testMeetingResults() {
+		int id = mgr.addFutureMeeting(mgr.getContacts("Moe"),
+				new GregorianCalendar(2020, 01, 27));
+		assertNotNull("Meeting not found", mgr.getFutureMeeting(id));
+		assertNull("Meeting found", mgr.getPastMeeting(id + 1));
+		Contact moe = mgr.getContacts("Moe").iterator().next();
+		assertEquals("Wrong meetings", 1, mgr.getFutureMeetingList(moe).size());
+		assertEquals("Wrong results", 1,
+				metrics.results(Operation.GET_FUTURE_MEETING).max());
+		assertEquals("Wrong results", 0,
+				metrics.results(Operation.GET_PAST_MEETING).max());
+		assertEquals("Wrong results", 1,
+				metrics.results(Operation.GET_FUTURE_MEETING_LIST_OF_CONTACT).max());
+	}
+
+	@Test
+	public void testFailedCallCounted() {
+		try {
+			mgr.getContacts(-1);
+			fail("No exception");
+		} catch (IllegalArgumentException e) {
+		}
+		assertEquals("Failed call not counted", 1,
+				metrics.calls(Operation.GET_CONTACTS_BY_IDS));
+		assertEquals("Failed call has results", 0,
+				metrics.results(Operation.GET_CONTACTS_BY_IDS).count());
+	}
+
+	@Test
+	public void testNoop() {
+		ContactManager noop = new InstrumentedContactManager(new ContactManagerImpl(),
+				ContactManagerMetrics.NOOP);
+		noop.addNewContact("Curly Stooge", "The bald one");
+		assertEquals("Call not passed on", 1, noop.getContacts("Curly").size());
+		assertEquals("Recorded without metrics", 2,
+				metrics.calls(Operation.ADD_NEW_CONTACT));
+	}
+
+	@Test
+	public void testBytesCounted() {
+		mgr.flush();
+		assertEquals("Wrong calls", 1, metrics.calls(Operation.FLUSH));
+		long written = metrics.bytesWritten();
+		assertEquals("Wrong bytes written", snapshot.length() + journal.length(),
+				written);
+		mgr.addNewContact("Curly Stooge", "The bald one");
+		mgr.flush();
+		assertEquals("Journal bytes not counted", snapshot.length() + journal.length(),
+				metrics.bytesWritten());
+		assertTrue("Nothing appended", metrics.bytesWritten() > written);
+
+		ContactManager mgr2 = ContactManagerImpl.read();
+		assertEquals("Wrong calls", 1, metrics.calls(Operation.READ));
+		assertEquals("Wrong bytes read", snapshot.length() + journal.length(),
+				metrics.bytesRead());
+		assertEquals("Contact not read", 1, mgr2.getContacts("Curly").size());
+	}
+
+	@Test
+	public void testJmx() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		List<ObjectName> names = MetricsExporter.register(metrics, server);
+		try {
+			assertEquals("Wrong MBeans", Operation.values().length + 1, names.size());
+			mgr.getContacts("Stooge");
+			ObjectName name = MetricsExporter.nameOf(Operation.GET_CONTACTS_BY_NAME);
+			assertEquals("Wrong calls", 1L, server.getAttribute(name, "Calls"));
+			assertEquals("Wrong max results", 2L, server.getAttribute(name, "MaxResults"));
+			mgr.flush();
+			assertEquals("Wrong bytes", metrics.bytesWritten(), server.getAttribute(
+					MetricsExporter.persistenceName(), "BytesWritten"));
+		} finally {
+			MetricsExporter.unregister(server);
+		}
+		assertFalse("Not unregistered", server.isRegistered(
+				MetricsExporter.persistenceName()));
+	}
+
+	@Test
+	public void testReport() throws InterruptedException {
+		mgr.getContacts("Stooge");
+		String report = MetricsExporter.report(metrics);
+		assertTrue("Missing operation", report.contains("getContacts(String): calls=1 "));
+		assertTrue("Missing results", report.contains("results=2.0 max=2"));
+		assertFalse("Operation not called", report.contains("flush"));
+		assertTrue("Missing bytes", report.contains("bytes written=0 read=0"));
+
+		SynchronousQueue<String> log = new SynchronousQueue<String>();
+		ScheduledExecutorService logger = MetricsExporter.logEvery(metrics,
+				10, TimeUnit.MILLISECONDS, log::offer);
+		try {
+			String logged = log.poll(10, TimeUnit.SECONDS);
+			assertNotNull("Nothing logged", logged);
+			assertTrue("Wrong report", logged.contains("getContacts(String)"));
+		} finally {
+			logger.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JournalTest {
+	private File snapshot;
+	private File journal;
+	private SnapshotCodec savedCodec;
+	private long savedThreshold;
+	private ContactManagerImpl mgr;
+	private Contact moe;
+	private int meetId;
+
+	@Before
+	public void setUp() throws IOException {
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2014,  11, 30));
+		snapshot = File.createTempFile("contacts", ".bin");
+		journal = new File(snapshot.getPath() + ".journal");
+		savedCodec = ContactManagerImpl.snapshotCodec;
+		savedThreshold = ContactManagerImpl.compactionThreshold;
+		ContactManagerImpl.snapshotCodec = new BinarySnapshotCodec(snapshot.getPath());
+		mgr = new ContactManagerImpl();
+		mgr.addNewContact("Moe Stooge", "The smart one");
+		moe = mgr.getContacts("Moe").iterator().next();
+		mgr.flush();
+	}
+
+	@After
+	public void tearDown() {
+		ContactManagerImpl.snapshotCodec = savedCodec;
+		ContactManagerImpl.compactionThreshold = savedThreshold;
+		snapshot.delete();
+		journal.delete();
+	}
+
+	/**
+	 * Make one change of each kind after the first flush.
+	 */
+	private void makeChanges() {
+		mgr.addNewContact("Larry Stooge", "The crazy one");
+		moe.addNotes("Not that smart");
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		meetId = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId()),
+				new GregorianCalendar(1963, 01, 27), "Nothing happened");
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		mgr.addMeetingNotes(meetId, "It happened");
+	}
+
+	private void checkChanges(ContactManager mgr2) {
+		Contact moe2 = mgr2.getContacts(moe.getId()).iterator().next();
+		assertEquals("Wrong notes", "The smart one\nNot that smart", moe2.getNotes());
+		assertEquals("Missing contact", 1, mgr2.getContacts("Larry").size());
+		assertEquals("Wrong notes", "It happened", mgr2.getPastMeeting(meetId).getNotes());
+		assertEquals("Wrong past meetings", 2, mgr2.getPastMeetingList(moe2).size());
+	}
+
+	@Test
+	public void testChangesReplayed() {
+		long snapshotSize = snapshot.length();
+		makeChanges();
+		mgr.flush();
+		assertEquals("Snapshot rewritten", snapshotSize, snapshot.length());
+		assertTrue("Journal not written", journal.length() > 12);
+		checkChanges(ContactManagerImpl.read());
+	}
+
+	@Test
+	public void testNullNotesNotApplied() {
+		Calendar date = new GregorianCalendar(2020, 01, 27);
+		meetId = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), date);
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2030, 01, 01));
+		try {
+			mgr.addNewContact("Larry Stooge", null);
+			fail("Null contact notes accepted");
+		} catch (NullPointerException e) {
+		}
+		try {
+			mgr.addMeetingNotes(meetId, null);
+			fail("Null meeting notes accepted");
+		} catch (NullPointerException e) {
+		}
+		try {
+			moe.addNotes(null);
+			fail("Null contact notes accepted");
+		} catch (NullPointerException e) {
+		}
+		assertEquals("Contact added", 0, mgr.getContacts("Larry").size());
+		assertEquals("Notes added", "The smart one", moe.getNotes());
+		mgr.addNewContact("Curly Stooge", "The bald one");
+		mgr.flush();
+		ContactManager mgr2 = ContactManagerImpl.read();
+		assertEquals("Contact read", 0, mgr2.getContacts("Larry").size());
+		assertEquals("Journal not readable", 1, mgr2.getContacts("Curly").size());
+		assertEquals("Wrong notes", "",
+				mgr2.getPastMeeting(meetId).getNotes());
+	}
+
+	@Test
+	public void testFailedFirstSnapshotRetried() {
+		snapshot.delete();
+		journal.delete();
+		final SnapshotCodec codec = ContactManagerImpl.snapshotCodec;
+		ContactManagerImpl.snapshotCodec = new SnapshotCodec() {
+			private boolean failed;
+
+			public String getFileName() {
+				return codec.getFileName();
+			}
+
+			public void write(ContactManagerImpl mgr) throws IOException {
+				if (!failed) {
+					failed = true;
+					throw new IOException("Disk full");
+				}
+				codec.write(mgr);
+			}
+
+			public void read(ContactManagerImpl mgr) throws IOException {
+				codec.read(mgr);
+			}
+		};
+		ContactManagerImpl mgr2 = new ContactManagerImpl();
+		mgr2.addNewContact("Larry Stooge", "The crazy one");
+		try {
+			mgr2.flush();
+			fail("Failed snapshot not reported");
+		} catch (UncheckedIOException e) {
+			assertEquals("Wrong failure", "Disk full", e.getCause().getMessage());
+		}
+		mgr2.addNewContact("Curly Stooge", "The bald one");
+		mgr2.flush();
+		assertTrue("Snapshot not written", snapshot.exists());
+		ContactManager mgr3 = ContactManagerImpl.read();
+		assertEquals("Contact lost", 1, mgr3.getContacts("Larry").size());
+		assertEquals("Contact lost", 1, mgr3.getContacts("Curly").size());
+	}
+
+	@Test
+	public void testChangesAfterReadReplayed() {
+		makeChanges();
+		mgr.flush();
+		ContactManager mgr2 = ContactManagerImpl.read();
+		mgr2.addNewContact("Curly Stooge", "The bald one");
+		mgr2.flush();
+		ContactManager mgr3 = ContactManagerImpl.read();
+		checkChanges(mgr3);
+		assertEquals("Missing contact", 1, mgr3.getContacts("Curly").size());
+	}
+
+	@Test
+	public void testTornChangeDropped() throws IOException {
+		makeChanges();
+		mgr.flush();
+		long journalSize = journal.length();
+		FileOutputStream out = new FileOutputStream(journal, true);
+		// the tag of a new contact, without its data
+		out.write(1);
+		out.close();
+		checkChanges(ContactManagerImpl.read());
+		assertEquals("Torn change not dropped", journalSize, journal.length());
+	}
+
+	@Test(expected=UncheckedIOException.class)
+	public void testTruncatedSnapshotNotRead() throws IOException {
+		makeChanges();
+		mgr.flush();
+		RandomAccessFile f = new RandomAccessFile(snapshot, "rw");
+		f.setLength(snapshot.length() - 1);
+		f.close();
+		ContactManagerImpl.read();
+	}
+
+	@Test
+	public void testSnapshotWithoutEmptyingJournal() throws IOException {
+		makeChanges();
+		mgr.flush();
+		// as if compaction stopped after writing the snapshot
+		ContactManagerImpl.snapshotCodec.write(mgr);
+		checkChanges(ContactManagerImpl.read());
+	}
+
+	@Test
+	public void testCompaction() {
+		makeChanges();
+		ContactManagerImpl.compactionThreshold = 0;
+		mgr.flush();
+		assertEquals("Journal not emptied", 12, journal.length());
+		checkChanges(ContactManagerImpl.read());
+	}
+
+	@Test
+	public void testChangesDuringAsyncCompactionKept() {
+		makeChanges();
+		ContactManagerImpl.compactionThreshold = 0;
+		CompletableFuture<Void> done = mgr.flushAsync();
+		mgr.addNewContact("Curly Stooge", "The bald one");
+		done.join();
+		mgr.flushAsync().join();
+		ContactManager mgr2 = ContactManagerImpl.read();
+		checkChanges(mgr2);
+		assertEquals("Missing contact", 1, mgr2.getContacts("Curly").size());
+	}
+
+	@Test
+	public void testDropBeforeKeepsLaterChanges() throws IOException {
+		Journal j = new Journal(journal.getPath());
+		j.start(mgr.getJournalSequence());
+		long offset = j.size();
+		j.newContact(new ContactImpl("Larry Stooge", "The crazy one"));
+		j.dropBefore(mgr.getJournalSequence(), offset);
+		j.newContact(new ContactImpl("Curly Stooge", "The bald one"));
+		j.sync();
+		j.close();
+		ContactManagerImpl mgr2 = new ContactManagerImpl();
+		mgr2.insertContact(new ContactImpl("Moe Stooge", "", moe.getId()));
+		assertEquals("Wrong last change", mgr.getJournalSequence() + 2,
+				j.replay(mgr2, mgr.getJournalSequence()));
+		assertEquals("Missing contact", 1, mgr2.getContacts("Larry").size());
+		assertEquals("Missing contact", 1, mgr2.getContacts("Curly").size());
+	}
+
+	@Test
+	public void testTimesReplayed() {
+		Calendar now = new GregorianCalendar(2014, 11, 30, 14, 0);
+		ContactManagerImpl.todayProvider = new FakeCurrentDayProvider(now);
+		Calendar soon = new GregorianCalendar(TimeZone.getTimeZone("Asia/Kolkata"));
+		soon.setTimeInMillis(now.getTimeInMillis() + 30 * 60 * 1000);
+		meetId = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), soon);
+		mgr.flush();
+		ContactManager mgr2 = ContactManagerImpl.read();
+		FutureMeeting fm = mgr2.getFutureMeeting(meetId);
+		assertNotNull("Meeting in the past", fm);
+		assertEquals("Wrong time", soon.getTimeInMillis(), fm.getDate().getTimeInMillis());
+		assertEquals("Wrong time zone", "Asia/Kolkata", fm.getDate().getTimeZone().getID());
+	}
+}
@@ -53,6 +53,13 @@ public abstract class MeetingImplTest {
 		assertEquals("Meeting 2 day wrong", date2, meeting2.getDate());
 	}
 
+	@Test
+	public void testDateNotShared() {
+		date1.add(Calendar.DATE, 1);
+		meeting1.getDate().add(Calendar.DATE, 1);
+		assertNotEquals("Meeting date changed", date1, meeting1.getDate());
+	}
+
 	@Test
 	public void testGetContacts() {
 		assertEquals("Meeting 1 wrong list of guests", guests1, meeting1.getContacts());
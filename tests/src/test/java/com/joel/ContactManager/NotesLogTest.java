@@ -0,0 +1,92 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class NotesLogTest {
+
+	@Test
+	public void testAppend() {
+		NotesLog log = NotesLog.of("one", null).append("two").append("three");
+		assertEquals("Wrong notes", "one\ntwo\nthree", log.toString());
+		assertSame("Notes not kept", log.toString(), log.toString());
+	}
+
+	@Test
+	public void testAppendAfterRead() {
+		NotesLog log = NotesLog.of("one", null).append("two");
+		assertEquals("Wrong notes", "one\ntwo", log.toString());
+		NotesLog more = log.append("three").append("four");
+		assertEquals("Wrong notes", "one\ntwo\nthree\nfour", more.toString());
+		assertEquals("Old notes changed", "one\ntwo", log.toString());
+	}
+
+	@Test
+	public void testSharedLog() {
+		NotesLog log = NotesLog.of("one", null).append("two");
+		NotesLog left = log.append("left");
+		NotesLog right = log.append("right");
+		assertEquals("Wrong notes", "one\ntwo\nleft", left.toString());
+		assertEquals("Wrong notes", "one\ntwo\nright", right.toString());
+		assertEquals("Wrong notes", "one\ntwo", log.toString());
+	}
+
+	@Test
+	public void testManyAppends() {
+		NotesLog log = NotesLog.of("", null);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			log = log.append(Integer.toString(i));
+			expected.append('\n').append(i);
+		}
+		assertEquals("Wrong notes", expected.toString(), log.toString());
+	}
+
+	@Test
+	public void testIsEmpty() {
+		assertTrue("Expected no notes", NotesLog.of("", null).isEmpty());
+		assertFalse("Expected notes", NotesLog.of("", null).append("").isEmpty());
+		assertFalse("Expected notes", NotesLog.of("one", null).isEmpty());
+	}
+
+	@Test
+	public void testOffHeap() {
+		NotesStore store = new NotesStore(16);
+		NotesLog log = NotesLog.of("caf\u00e9", store).append("").append("a note longer than a chunk");
+		assertEquals("Wrong notes", "caf\u00e9\n\na note longer than a chunk", log.toString());
+		assertEquals("Wrong store size", 31, store.size());
+		assertTrue("Expected no notes", NotesLog.of("", store).isEmpty());
+	}
+
+	@Test
+	public void testOffHeapShared() {
+		NotesStore store = new NotesStore();
+		NotesLog log = NotesLog.of("one", store).append("two");
+		NotesLog left = log.append("left");
+		NotesLog right = log.append("right");
+		assertEquals("Wrong notes", "one\ntwo\nleft", left.toString());
+		assertEquals("Wrong notes", "one\ntwo\nright", right.toString());
+		assertEquals("Wrong notes", "one\ntwo", log.toString());
+	}
+
+	@Test
+	public void testMappedFile() throws Exception {
+		Path file = Files.createTempFile("notes", ".bin");
+		try {
+			NotesStore store = new NotesStore(file, 8);
+			NotesLog log = NotesLog.of("", store);
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < 1000; i++) {
+				log = log.append(Integer.toString(i));
+				expected.append('\n').append(i);
+			}
+			assertEquals("Wrong notes", expected.toString(), log.toString());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -49,4 +49,11 @@ public class PastMeetingImplTest extends MeetingImplTest {
 				notes1 + "\n" + notes2, mb.getNotes());
 
 	}
+
+	@Test
+	public void testAddNotesToMeetingWithoutNotes() {
+		PastMeeting ma = new PastMeetingImpl(guests1, date1, "");
+		PastMeeting mb = new PastMeetingImpl(ma, notes2);
+		assertEquals("Wrong notes for past meeting without notes", notes2, mb.getNotes());
+	}
 }
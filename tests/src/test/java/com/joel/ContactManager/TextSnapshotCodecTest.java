@@ -0,0 +1,136 @@
+package com.joel.ContactManager;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextSnapshotCodecTest {
+	private File file;
+	private SnapshotCodec codec;
+	private ContactManagerImpl mgr;
+	private Contact moe, larry;
+
+	@Before
+	public void setUp() throws IOException {
+		ContactManagerImpl.todayProvider =
+				new FakeCurrentDayProvider(new GregorianCalendar(2014,  11, 30));
+		file = File.createTempFile("contacts", ".txt");
+		codec = new TextSnapshotCodec(file.getPath());
+		mgr = new ContactManagerImpl();
+		mgr.addNewContact("Moe Stooge", "The smart one");
+		mgr.addNewContact("Larry Stooge", "The crazy one");
+		moe = mgr.getContacts("Moe").iterator().next();
+		larry = mgr.getContacts("Larry").iterator().next();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+		new File(file.getPath() + ".tmp").delete();
+	}
+
+	@Test
+	public void testUnknownGuest() throws IOException {
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId(), larry.getId()),
+				new GregorianCalendar(1963, 01, 27), "Moe hit Larry");
+		codec.write(mgr);
+		// drop Larry from the contacts, which come as id, name and notes
+		// after the format and sequence lines
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		int i = 2;
+		while (!lines.get(i).equals("" + larry.getId())) {
+			i += 3;
+		}
+		lines.subList(i, i + 3).clear();
+		Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+		try {
+			codec.read(new ContactManagerImpl());
+			fail("Unknown guest read");
+		} catch (IOException e) {
+			assertTrue("Wrong message", e.getMessage().contains("unknown guest"));
+		}
+	}
+
+	@Test
+	public void testFailedWriteCleanedUp() throws IOException {
+		codec.write(mgr);
+		mgr.insertContact(new ContactImpl("Curly Stooge", "The bald one") {
+			public String getNotes() {
+				throw new IllegalStateException("Notes lost");
+			}
+		});
+		try {
+			codec.write(mgr);
+			fail("Write did not fail");
+		} catch (IllegalStateException e) {
+		}
+		assertFalse("Partial snapshot left", new File(file.getPath() + ".tmp").exists());
+		ContactManagerImpl mgr2 = new ContactManagerImpl();
+		codec.read(mgr2);
+		assertEquals("Previous snapshot lost", 2, mgr2.getContacts("").size());
+	}
+
+	@Test
+	public void testTimesKept() throws IOException {
+		Calendar now = new GregorianCalendar(2014, 11, 30, 14, 0);
+		ContactManagerImpl.todayProvider = new FakeCurrentDayProvider(now);
+		Calendar soon = new GregorianCalendar(TimeZone.getTimeZone("America/New_York"));
+		soon.setTimeInMillis(now.getTimeInMillis() + 30 * 60 * 1000);
+		int id = mgr.addFutureMeeting(mgr.getContacts(moe.getId()), soon);
+		codec.write(mgr);
+
+		ContactManagerImpl mgr2 = new ContactManagerImpl();
+		codec.read(mgr2);
+		FutureMeeting fm = mgr2.getFutureMeeting(id);
+		assertNotNull("Meeting in the past", fm);
+		assertEquals("Wrong time", soon.getTimeInMillis(), fm.getDate().getTimeInMillis());
+		assertEquals("Wrong time zone", "America/New_York",
+				fm.getDate().getTimeZone().getID());
+	}
+
+	@Test(expected=IOException.class)
+	public void testMalformedId() throws IOException {
+		codec.write(mgr);
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		lines.set(2, "Moe");
+		Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+		codec.read(new ContactManagerImpl());
+	}
+
+	@Test(expected=IOException.class)
+	public void testNegativeId() throws IOException {
+		codec.write(mgr);
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		lines.set(2, "-" + lines.get(2));
+		Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+		codec.read(new ContactManagerImpl());
+	}
+
+	@Test
+	public void testTruncatedAnywhere() throws IOException {
+		mgr.addNewPastMeeting(mgr.getContacts(moe.getId(), larry.getId()),
+				new GregorianCalendar(1963, 01, 27), "Moe hit Larry");
+		mgr.addFutureMeeting(mgr.getContacts(larry.getId()), new GregorianCalendar(2030, 02, 12));
+		codec.write(mgr);
+		List<String> whole = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		for (int length = 0; length < whole.size(); length++) {
+			Files.write(file.toPath(), whole.subList(0, length), StandardCharsets.UTF_8);
+			try {
+				codec.read(new ContactManagerImpl());
+				fail("Read " + length + " of " + whole.size() + " lines");
+			} catch (IOException e) {
+			}
+		}
+	}
+}